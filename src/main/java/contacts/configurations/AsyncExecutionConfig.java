@@ -0,0 +1,117 @@
+package contacts.configurations;
+
+import com.zaxxer.hikari.HikariDataSource;
+import contacts.controllers.ContactController;
+import contacts.controllers.ExecutionModeReturnValueHandler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcRegistrations;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandlerComposite;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The opt-in async execution mode, contacts.async.enabled.  When on, handlers that wait on the
+ * database run on a bounded executor sized to the connection pool, so Tomcat's threads are not
+ * held for the JDBC round-trip; requests beyond the pool wait in a bounded queue and are turned
+ * away with 503 when it is full.  When off, handlers run on the request thread as they always have.
+ *
+ * <p>Either way the same executor is Spring MVC's async executor, which writes streamed Flux
+ * results; left unset, MVC would start a thread for every write.  The export has an executor of
+ * its own, so long downloads cannot take the threads and connections single queries need.
+ *
+ * <p>Executors that wait on the database default to a thread per pooled connection.
+ */
+@Configuration
+public class AsyncExecutionConfig implements WebMvcConfigurer {
+
+  private static final String REQUEST_EXECUTOR = "requestExecutor";
+
+  private final boolean asyncEnabled;
+  private final long timeoutMillis;
+  private final ObjectProvider<AsyncTaskExecutor> requestExecutor;
+
+  public AsyncExecutionConfig(@Value("${contacts.async.enabled:false}") boolean asyncEnabled,
+                              @Value("${contacts.async.timeout-millis:30000}") long timeoutMillis,
+                              @Qualifier(REQUEST_EXECUTOR) ObjectProvider<AsyncTaskExecutor> requestExecutor) {
+    this.asyncEnabled = asyncEnabled;
+    this.timeoutMillis = timeoutMillis;
+    this.requestExecutor = requestExecutor;
+  }
+
+  @Bean(name = REQUEST_EXECUTOR)
+  public ThreadPoolTaskExecutor requestExecutor(@Value("${contacts.async.pool-size:0}") int poolSize,
+                                                @Value("${contacts.async.queue-capacity:1000}") int queueCapacity,
+                                                ObjectProvider<DataSource> dataSource) {
+    int threads = poolSize > 0 ? poolSize : connectionPoolSize(dataSource.getIfAvailable());
+    return boundedExecutor(threads, queueCapacity, "contacts-request-");
+  }
+
+  @Bean(name = ContactController.EXPORT_EXECUTOR)
+  public ThreadPoolTaskExecutor exportExecutor(@Value("${contacts.export.pool-size:4}") int poolSize,
+                                               @Value("${contacts.export.queue-capacity:16}") int queueCapacity) {
+    return boundedExecutor(poolSize, queueCapacity, "contacts-export-");
+  }
+
+  /**
+   * @return the most connections the pool will open, or the production pool's default size if it
+   * is not a Hikari pool
+   */
+  public static int connectionPoolSize(DataSource dataSource) {
+    if(dataSource instanceof HikariDataSource) {
+      return ((HikariDataSource) dataSource).getMaximumPoolSize();
+    }
+    return ProdConfig.DEFAULT_POOL_MAX_SIZE;
+  }
+
+  private static ThreadPoolTaskExecutor boundedExecutor(int poolSize, int queueCapacity, String threadNamePrefix) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(poolSize);
+    executor.setMaxPoolSize(poolSize);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setThreadNamePrefix(threadNamePrefix);
+    return executor;
+  }
+
+  @Override
+  public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+    configurer.setTaskExecutor(requestExecutor.getObject());
+    if(asyncEnabled) {
+      configurer.setDefaultTimeout(timeoutMillis);
+    }
+  }
+
+  /**
+   * Puts the {@link ExecutionModeReturnValueHandler} ahead of Spring's handlers, which only
+   * accept additions after their own.
+   */
+  @Bean
+  public WebMvcRegistrations executionModeRegistrations() {
+    return new WebMvcRegistrations() {
+      @Override
+      public RequestMappingHandlerAdapter getRequestMappingHandlerAdapter() {
+        return new RequestMappingHandlerAdapter() {
+          @Override
+          public void afterPropertiesSet() {
+            super.afterPropertiesSet();
+            List<HandlerMethodReturnValueHandler> handlers = new ArrayList<>(getReturnValueHandlers());
+            HandlerMethodReturnValueHandlerComposite resultHandler = new HandlerMethodReturnValueHandlerComposite().addHandlers(handlers);
+            handlers.add(0, new ExecutionModeReturnValueHandler(asyncEnabled, resultHandler));
+            setReturnValueHandlers(handlers);
+          }
+        };
+      }
+    };
+  }
+}
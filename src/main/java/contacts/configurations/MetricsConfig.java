@@ -0,0 +1,52 @@
+package contacts.configurations;
+
+import contacts.metrics.ClientTags;
+import contacts.metrics.ClientWebMvcTagsProvider;
+import contacts.metrics.LatencyAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTagsProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Request latency instrumentation.  Endpoints are timed by Spring MVC in
+ * {@code http.server.requests}, services and repositories by {@link LatencyAspect} and the JSON
+ * column converters in {@code contacts.converter}.  All but the converters, which run per column
+ * of every row, are tagged by client.  Percentiles are configured in application.properties.
+ */
+@Configuration
+public class MetricsConfig {
+
+  @Bean
+  public LatencyAspect latencyAspect(MeterRegistry meterRegistry) {
+    return new LatencyAspect(meterRegistry);
+  }
+
+  @Bean
+  public WebMvcTagsProvider webMvcTagsProvider() {
+    return new ClientWebMvcTagsProvider();
+  }
+
+  @Bean
+  public WebMvcConfigurer clientTagsConfigurer() {
+    return new WebMvcConfigurer() {
+      @Override
+      public void addInterceptors(InterceptorRegistry registry) {
+        // http.server.requests is recorded after the security context is cleared
+        registry.addInterceptor(new HandlerInterceptor() {
+          @Override
+          public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+            ClientTags.remember(request);
+            return true;
+          }
+        });
+      }
+    };
+  }
+}
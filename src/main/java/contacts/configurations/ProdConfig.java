@@ -5,8 +5,15 @@ import com.amazonaws.services.secretsmanager.AWSSecretsManager;
 import com.amazonaws.services.secretsmanager.AWSSecretsManagerClientBuilder;
 import com.amazonaws.services.secretsmanager.model.GetSecretValueRequest;
 import com.amazonaws.services.secretsmanager.model.GetSecretValueResult;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
 import contacts.exceptions.ContactsRuntimeException;
-import org.springframework.boot.jdbc.DataSourceBuilder;
+import contacts.singletons.AwsSecretSource;
+import contacts.singletons.SecretsManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -19,9 +26,12 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 import org.yaml.snakeyaml.Yaml;
 
 import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceException;
 import javax.sql.DataSource;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 @EnableJpaRepositories(basePackages = {"contacts.repositories"})
@@ -29,8 +39,33 @@ import java.util.Properties;
 @Profile("prod")
 public class ProdConfig {
 
+  private static final Logger logger = LogManager.getLogger(ProdConfig.class);
+
   private static final String CONTACTS_APP_BASE_PATH = "AWS/Secret/Path/Prefix";
 
+  // optional pool settings, read from the same place as the credentials; keys as in the secret
+  private static final Map<String, String> POOL_SETTINGS_ENV = poolSettingsEnv();
+  static final int DEFAULT_POOL_MAX_SIZE = 20;
+  private static final long DEFAULT_POOL_CONNECTION_TIMEOUT_MS = 5000;
+  private static final long DEFAULT_POOL_MAX_LIFETIME_MS = 1800000;
+  private static final long DEFAULT_POOL_LEAK_DETECTION_MS = 60000;
+
+  private final MeterRegistry meterRegistry;
+
+  public ProdConfig(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  private static Map<String, String> poolSettingsEnv() {
+    Map<String, String> settings = new HashMap<>();
+    settings.put("DB_POOL_MAX_SIZE", "poolMaxSize");
+    settings.put("DB_POOL_MIN_IDLE", "poolMinIdle");
+    settings.put("DB_POOL_CONNECTION_TIMEOUT_MS", "poolConnectionTimeoutMs");
+    settings.put("DB_POOL_MAX_LIFETIME_MS", "poolMaxLifetimeMs");
+    settings.put("DB_POOL_LEAK_DETECTION_MS", "poolLeakDetectionMs");
+    return settings;
+  }
+
   /**
    * Set the db credentials either in the environment or use the instance profile to retrieve them
    * from AWS Secrets Manager.
@@ -42,10 +77,14 @@ public class ProdConfig {
    * <p>Not implemented yet is the ability to specify a different host, port, or database engine.
    * These default to 'localhost', '3306', and 'mysql' respectively.
    *
+   * <p>The connection pool can be tuned with the optional environment variables "DB_POOL_MAX_SIZE",
+   * "DB_POOL_MIN_IDLE", "DB_POOL_CONNECTION_TIMEOUT_MS", "DB_POOL_MAX_LIFETIME_MS" and
+   * "DB_POOL_LEAK_DETECTION_MS", or the keys "poolMaxSize", etc. in the secret.
+   *
    * @return Properties object containing database name, username, and password to connect to a
    * database instance
    */
-  private static Properties getDbCredentials() {
+  private static Properties getDbCredentials(AWSSecretsManager awsClient) {
     Properties credentials = new Properties();
 
     Map<String, String> env = System.getenv();
@@ -61,21 +100,21 @@ public class ProdConfig {
       credentials.put("port", env.get("DB_PORT"));
       credentials.put("host", env.get("DB_HOST"));
       credentials.put("engine", env.get("DB_ENGINE"));
+      for (Map.Entry<String, String> setting : POOL_SETTINGS_ENV.entrySet()) {
+        if (env.containsKey(setting.getKey())) {
+          credentials.put(setting.getValue(), env.get(setting.getKey()));
+        }
+      }
     } else {
       String secretName = CONTACTS_APP_BASE_PATH + "/database";
 
-      credentials = parseCredentials(getSecrets(secretName));
+      credentials = parseCredentials(getSecrets(secretName, awsClient));
     }
 
     return credentials;
   }
 
-  private static String getSecrets(String secretName) {
-    AWSSecretsManager awsClient =
-      AWSSecretsManagerClientBuilder.standard()
-        .withRegion(Regions.US_EAST_1)
-        .build();
-
+  private static String getSecrets(String secretName, AWSSecretsManager awsClient) {
     GetSecretValueResult secretResult;
     try {
       secretResult = makeSecretRequest(secretName, awsClient);
@@ -107,43 +146,108 @@ public class ProdConfig {
   }
 
   /**
-   * DataSource bean for production.
+   * The one AWS Secrets Manager client for the application.
+   *
+   * @return the client
+   */
+  @Bean
+  public AWSSecretsManager awsSecretsManager() {
+    return AWSSecretsManagerClientBuilder.standard()
+      .withRegion(Regions.US_EAST_1)
+      .build();
+  }
+
+  /**
+   * The service token verifier, with the authorizations secret already loaded so the application
+   * is not reported ready until it can authenticate requests without a cold fetch.  A failed
+   * prefetch is logged and left to the first request to retry.
+   *
+   * @param awsSecretsManager client the secrets are read with
+   * @return the secrets manager
+   */
+  @Bean
+  public SecretsManager secretsManager(AWSSecretsManager awsSecretsManager) {
+    SecretsManager secretsManager = new SecretsManager(new AwsSecretSource(awsSecretsManager), meterRegistry);
+
+    long prefetchStart = System.nanoTime();
+    try {
+      int tokens = secretsManager.prefetchServiceTokens();
+      logger.info("Prefetched {} service tokens in {} ms", tokens, elapsedMillis(prefetchStart));
+    } catch (ContactsRuntimeException ex) {
+      logger.warn("Failed to prefetch service tokens after {} ms", elapsedMillis(prefetchStart), ex);
+    }
+
+    return secretsManager;
+  }
+
+  /**
+   * DataSource bean for production.  The credentials are resolved here, once, and the pool is
+   * started before the bean is handed to the Entity Manager Factory.
    *
+   * @param awsSecretsManager client used when the credentials are not in the environment
    * @return the datasource
    */
   @Bean
-  public DataSource dataSource() {
+  public DataSource dataSource(AWSSecretsManager awsSecretsManager) {
+    long credentialsStart = System.nanoTime();
+    Properties credentials = getDbCredentials(awsSecretsManager);
+    logger.info("Resolved database credentials in {} ms", elapsedMillis(credentialsStart));
 
-    Properties credentials = getDbCredentials();
     if (credentials.getProperty("engine") == null ||
       credentials.getProperty("host") == null ||
       credentials.getProperty("port") == null) {
       throw new ContactsRuntimeException("Missing 1 or more required database properties: engine, host and port are all required");
     }
 
-    String url = String.format("jdbc:%s://%s:%s/%s",
+    // useCursorFetch lets ContactRepository stream results instead of buffering the whole result set
+    String url = String.format("jdbc:%s://%s:%s/%s?useCursorFetch=true",
       credentials.getProperty("engine"),
       credentials.getProperty("host"),
       credentials.getProperty("port"),
       credentials.getProperty("dbname"));
 
-    return DataSourceBuilder.create()
-      .driverClassName("com.mysql.cj.jdbc.Driver")
-      .url(url)
-      .username(credentials.getProperty("username"))
-      .password(credentials.getProperty("password"))
-      .build();
+    HikariConfig config = new HikariConfig();
+    config.setPoolName("contacts");
+    config.setDriverClassName("com.mysql.cj.jdbc.Driver");
+    config.setJdbcUrl(url);
+    config.setUsername(credentials.getProperty("username"));
+    config.setPassword(credentials.getProperty("password"));
+
+    int maxPoolSize = Integer.parseInt(credentials.getProperty("poolMaxSize", String.valueOf(DEFAULT_POOL_MAX_SIZE)));
+    config.setMaximumPoolSize(maxPoolSize);
+    config.setMinimumIdle(Integer.parseInt(credentials.getProperty("poolMinIdle", String.valueOf(maxPoolSize))));
+    config.setConnectionTimeout(Long.parseLong(credentials.getProperty("poolConnectionTimeoutMs", String.valueOf(DEFAULT_POOL_CONNECTION_TIMEOUT_MS))));
+    config.setMaxLifetime(Long.parseLong(credentials.getProperty("poolMaxLifetimeMs", String.valueOf(DEFAULT_POOL_MAX_LIFETIME_MS))));
+    config.setLeakDetectionThreshold(Long.parseLong(credentials.getProperty("poolLeakDetectionMs", String.valueOf(DEFAULT_POOL_LEAK_DETECTION_MS))));
+
+    // Connector/J: cache prepared statements client and server side, and rewrite JDBC batches
+    // into multi-row statements
+    config.addDataSourceProperty("cachePrepStmts", "true");
+    config.addDataSourceProperty("prepStmtCacheSize", "250");
+    config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+    config.addDataSourceProperty("useServerPrepStmts", "true");
+    config.addDataSourceProperty("rewriteBatchedStatements", "true");
+
+    // exposes hikaricp.connections.active/idle/pending/acquire etc. through actuator
+    config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+    long poolStart = System.nanoTime();
+    HikariDataSource dataSource = new HikariDataSource(config);
+    logger.info("Started connection pool in {} ms", elapsedMillis(poolStart));
+
+    return dataSource;
   }
 
   /**
    * The Entity Manager Factory bean required for JPA.
    *
+   * @param dataSource the datasource bean
    * @return the factory
    */
   @Bean
-  public LocalContainerEntityManagerFactoryBean entityManagerFactory() {
+  public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
     HibernateJpaVendorAdapter vendorAdaptor = getHibernateJpaVendorAdapter();
-    return getEntityManagerFactory(vendorAdaptor);
+    return getEntityManagerFactory(vendorAdaptor, dataSource);
   }
 
   /**
@@ -168,13 +272,20 @@ public class ProdConfig {
   }
 
   private LocalContainerEntityManagerFactoryBean getEntityManagerFactory(
-    HibernateJpaVendorAdapter vendorAdaptor) {
+    HibernateJpaVendorAdapter vendorAdaptor, DataSource dataSource) {
     LocalContainerEntityManagerFactoryBean entityManagerFactory =
-      new LocalContainerEntityManagerFactoryBean();
+      new LocalContainerEntityManagerFactoryBean() {
+        @Override
+        public void afterPropertiesSet() throws PersistenceException {
+          long buildStart = System.nanoTime();
+          super.afterPropertiesSet();
+          ProdConfig.logger.info("Built EntityManagerFactory in {} ms", elapsedMillis(buildStart));
+        }
+      };
 
     entityManagerFactory.setJpaVendorAdapter(vendorAdaptor);
     entityManagerFactory.setPackagesToScan("contacts");
-    entityManagerFactory.setDataSource(dataSource());
+    entityManagerFactory.setDataSource(dataSource);
     entityManagerFactory.setJpaProperties(jpaProperties());
 
     return entityManagerFactory;
@@ -183,7 +294,15 @@ public class ProdConfig {
   private Properties jpaProperties() {
     Properties properties = new Properties();
     properties.setProperty("hibernate.dialect", "org.hibernate.dialect.MySQL5Dialect");
+    // group inserts and updates into JDBC batches; relies on Contact ids not being IDENTITY
+    properties.setProperty("hibernate.jdbc.batch_size", "50");
+    properties.setProperty("hibernate.order_inserts", "true");
+    properties.setProperty("hibernate.order_updates", "true");
     return properties;
   }
 
+  private static long elapsedMillis(long startNanos) {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+  }
+
 }
@@ -1,12 +1,17 @@
 package contacts.configurations;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import contacts.security.ApiKeyAuthFilter;
+import contacts.security.ClientRateLimitFilter;
+import contacts.security.ClientThrottle;
+import contacts.security.ServiceTokenAuthenticationManager;
 import contacts.singletons.SecretsManager;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.annotation.Order;
-import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.core.env.Environment;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
@@ -21,32 +26,71 @@ public class ProdWebSecurityConfig extends WebSecurityConfigurerAdapter {
   @Value("Authorization")
   private String principleRequestHeader;
 
+  @Value("${contacts.auth.cache.maximum-size:1000}")
+  private long authCacheMaximumSize;
+
+  @Value("${contacts.auth.cache.expire-after-write-seconds:60}")
+  private long authCacheExpireAfterWriteSeconds;
+
+  private static final String RATE_LIMIT_PREFIX = "contacts.rate-limit.";
+
+  private final SecretsManager secretsManager;
+  private final Environment environment;
+  private final MeterRegistry meterRegistry;
+  private final ObjectMapper objectMapper;
+
+  /**
+   * Constructor.
+   *
+   * @param secretsManager verifies service tokens
+   * @param environment    source of the per-client rate limits
+   * @param meterRegistry  where to count throttled requests
+   * @param objectMapper   writes throttling error bodies
+   */
+  public ProdWebSecurityConfig(SecretsManager secretsManager, Environment environment, MeterRegistry meterRegistry,
+                               ObjectMapper objectMapper) {
+    this.secretsManager = secretsManager;
+    this.environment = environment;
+    this.meterRegistry = meterRegistry;
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * Limits for a client: "contacts.rate-limit.clients.{client}.requests-per-second", ".burst" and
+   * ".max-concurrent", each falling back to the same key directly under "contacts.rate-limit.".
+   */
+  private ClientThrottle clientThrottle(String client) {
+    return new ClientThrottle(
+      rateLimitSetting(client, "requests-per-second", Double.class, 50.0),
+      rateLimitSetting(client, "burst", Integer.class, 100),
+      rateLimitSetting(client, "max-concurrent", Integer.class, 20),
+      System.nanoTime());
+  }
+
+  private <T> T rateLimitSetting(String client, String name, Class<T> type, T defaultValue) {
+    T fallback = environment.getProperty(RATE_LIMIT_PREFIX + name, type, defaultValue);
+    return environment.getProperty(RATE_LIMIT_PREFIX + "clients." + client + "." + name, type, fallback);
+  }
+
   /**
    * require UI to pass a header with an authorization token to be verified against a
-   * mapping of allowed entities stored in aws secrets manager
+   * mapping of allowed entities stored in aws secrets manager; the authenticated principal
+   * is the name of the client the token belongs to, which is then held to its rate limit
    */
   @Override
   protected void configure(HttpSecurity http) throws Exception {
     ApiKeyAuthFilter filter = new ApiKeyAuthFilter(principleRequestHeader);
 
-    filter.setAuthenticationManager(authentication -> {
-      String serviceToken = (String) authentication.getPrincipal();
-      if(serviceToken == null || serviceToken.isEmpty()) {
-        throw new BadCredentialsException("No value given for 'Authorization' header");
-      }
-
-      //will throw is this token is now found in our secret that stores permitted tokens
-      SecretsManager.getInstance().verifyServiceToken(serviceToken);
-
-      authentication.setAuthenticated(true);
-      return authentication;
-    });
+    filter.setAuthenticationManager(new ServiceTokenAuthenticationManager(
+      secretsManager::verifyServiceToken, authCacheMaximumSize, authCacheExpireAfterWriteSeconds));
 
     http.antMatcher("/v1/**")
           .csrf().disable()
           .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
           .and()
-          .addFilter(filter).authorizeRequests().anyRequest().authenticated();
+          .addFilter(filter)
+          .addFilterAfter(new ClientRateLimitFilter(this::clientThrottle, meterRegistry, objectMapper), ApiKeyAuthFilter.class)
+          .authorizeRequests().anyRequest().authenticated();
   }
 
 }
@@ -0,0 +1,35 @@
+package contacts.configurations;
+
+import contacts.repositories.ReactiveContactRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import javax.sql.DataSource;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The scheduler the reactive API runs its JDBC calls on, off Tomcat's threads.  It has a thread
+ * per pooled connection, so queries past the pool wait for a thread rather than a connection, in a
+ * bounded queue; a query the queue has no room for fails with RejectedExecutionException, a 503.
+ */
+@Configuration
+public class ReactiveConfig {
+
+  @Bean(name = ReactiveContactRepository.JDBC_SCHEDULER, destroyMethod = "dispose")
+  public Scheduler jdbcScheduler(@Value("${contacts.reactive.pool-size:0}") int poolSize,
+                                 @Value("${contacts.reactive.queue-capacity:1000}") int queueCapacity,
+                                 ObjectProvider<DataSource> dataSource) {
+    int threads = poolSize > 0 ? poolSize : AsyncExecutionConfig.connectionPoolSize(dataSource.getIfAvailable());
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+      new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("contacts-jdbc-"));
+    return Schedulers.fromExecutorService(executor);
+  }
+
+}
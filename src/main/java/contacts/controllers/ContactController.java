@@ -1,113 +1,432 @@
 package contacts.controllers;
 
-import contacts.exceptions.ContactAlreadyExistsException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import contacts.exceptions.ContactNotFoundException;
-import contacts.exceptions.ErrorInfo;
+import contacts.exceptions.ContactVersionConflictException;
+import contacts.models.BatchItemResult;
 import contacts.models.Contact;
+import contacts.models.ContactChanges;
+import contacts.models.ContactListVersion;
+import contacts.models.ContactSearchCriteria;
+import contacts.models.ContactSuggestion;
+import contacts.models.ImportSummary;
+import contacts.services.ContactImportService;
 import contacts.services.ContactService;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
 
+import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.http.MediaType.APPLICATION_JSON_UTF8;
 
+/**
+ * The contacts API.  Handlers that wait on the database return a Callable, which is called on the
+ * request thread or, in the async execution mode, on a bounded executor that frees the request
+ * thread while the query runs; see {@link ExecutionModeReturnValueHandler}.
+ */
 @RestController
 @RequestMapping("/contacts")
 public class ContactController {
 
-  private static final Logger logger = LogManager.getLogger(ContactController.class);
+  public static final String EXPORT_EXECUTOR = "exportExecutor";
+  static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+  static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+  static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+  static final MediaType APPLICATION_CBOR = MediaType.valueOf("application/cbor");
+  private static final String CBOR_ETAG_SUFFIX = "+cbor";
 
   private final ContactService contactService;
+  private final ContactImportService contactImportService;
+  private final ObjectMapper objectMapper;
+  private final ObjectMapper cborMapper;
+  private final AsyncTaskExecutor exportExecutor;
+  private final CallableProcessingInterceptor exportTimeout;
 
   @Autowired
-  public ContactController(ContactService contactService) {
+  public ContactController(ContactService contactService, ContactImportService contactImportService, ObjectMapper objectMapper,
+                           @Qualifier(EXPORT_EXECUTOR) AsyncTaskExecutor exportExecutor,
+                           @Value("${contacts.export.timeout-millis:3600000}") long exportTimeoutMillis) {
     this.contactService = contactService;
+    this.contactImportService = contactImportService;
+    this.objectMapper = objectMapper;
+    // configured as Spring MVC configures its CBOR message converter
+    this.cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+    this.exportExecutor = exportExecutor;
+    this.exportTimeout = new ExportTimeout(exportTimeoutMillis);
   }
 
+  /**
+   * Export of every contact.  Rows are written to the response as they are read from the
+   * database, so memory use does not grow with the size of the table.  The ETag is an aggregate
+   * over the table, so a client whose copy is current gets a 304 without any rows being read.
+   * Written as JSON, or as CBOR for callers that prefer application/cbor.  The write holds a
+   * thread and a connection for the whole download, so it runs on a small executor of its own,
+   * and under contacts.export.timeout-millis rather than the async timeout meant for single
+   * queries, which would cut a large export or slow client off after a 200 had been sent.
+   */
   @GetMapping
-  public HttpEntity<List<Contact>> getAllContacts() {
+  public HttpEntity<StreamingResponseBody> getAllContacts(WebRequest webRequest) {
     HttpHeaders headers = new HttpHeaders();
-    headers.setContentType(APPLICATION_JSON_UTF8);
+    boolean cbor = prefersCbor(webRequest.getHeader(HttpHeaders.ACCEPT));
+    headers.setContentType(cbor ? APPLICATION_CBOR : APPLICATION_JSON_UTF8);
+    headers.setVary(Collections.singletonList(HttpHeaders.ACCEPT));
+
+    // streaming bodies skip Spring's conditional request handling, so the check is made here;
+    // it also sets the ETag and Last-Modified headers
+    ContactListVersion listVersion = contactService.getContactListVersion();
+    long lastModified = listVersion.lastModified == null ? -1 : listVersion.lastModified.toEpochMilli();
+    if(webRequest.checkNotModified(representationEtag(listVersion.etag(), cbor), lastModified)) {
+      return null;
+    }
+
+    WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(webRequest);
+    asyncManager.setTaskExecutor(exportExecutor);
+    asyncManager.registerCallableInterceptor(ExportTimeout.class.getName(), exportTimeout);
+    ObjectMapper mapper = cbor ? cborMapper : objectMapper;
+    StreamingResponseBody body = outputStream -> {
+      JsonGenerator generator = mapper.getFactory().createGenerator(outputStream);
+      generator.writeStartArray();
+      contactService.streamAllContacts(contact -> writeContact(generator, contact));
+      generator.writeEndArray();
+      generator.flush();
+    };
 
     return ResponseEntity
       .ok()
       .headers(headers)
-      .body(contactService.getAllContacts());
+      .body(body);
   }
 
-  @PostMapping
-  public HttpEntity<Contact> createContact(@RequestBody Contact contact) {
+  /**
+   * Keyset paginated contacts.  When the page is full the id to pass as 'after' for the next
+   * page is returned in the X-Next-Cursor header.
+   */
+  @GetMapping(params = "limit")
+  public Callable<HttpEntity<List<Contact>>> getContactsPage(@RequestParam(value = "after", defaultValue = "0") long after,
+                                                             @RequestParam(value = "limit") int limit) {
+    return () -> {
+      HttpHeaders headers = new HttpHeaders();
+
+      List<Contact> page = contactService.getContactsPage(after, limit);
+      if(!page.isEmpty() && page.size() >= Math.min(limit, ContactService.MAX_PAGE_SIZE)) {
+        headers.set(NEXT_CURSOR_HEADER, String.valueOf(page.get(page.size() - 1).getId()));
+      }
+
+      return ResponseEntity
+        .ok()
+        .headers(headers)
+        .body(page);
+    };
+  }
+
+  /**
+   * Delta sync: contacts created, updated or deleted since a watermark, oldest first.  Pass the
+   * returned watermark as 'since' on the next call; 'more' says whether to call again right away.
+   */
+  @GetMapping("/changes")
+  public Callable<HttpEntity<ContactChanges>> getChanges(@RequestParam(value = "since", required = false) String since,
+                                                         @RequestParam(value = "limit", defaultValue = "100") int limit) {
+    return () -> {
+      HttpHeaders headers = new HttpHeaders();
+
+      return ResponseEntity
+        .ok()
+        .headers(headers)
+        .body(contactService.getChanges(since, limit));
+    };
+  }
+
+  /**
+   * Searches contacts by last name, city, state, zip or email, so clients need not download the
+   * whole list to filter it.  Matching is case-insensitive; the total number of matches is
+   * returned in the X-Total-Count header.
+   */
+  @GetMapping("/search")
+  public Callable<HttpEntity<List<Contact>>> searchContacts(@RequestParam(value = "lastName", required = false) String lastName,
+                                                            @RequestParam(value = "lastNamePrefix", required = false) String lastNamePrefix,
+                                                            @RequestParam(value = "city", required = false) String city,
+                                                            @RequestParam(value = "state", required = false) String state,
+                                                            @RequestParam(value = "zip", required = false) String zip,
+                                                            @RequestParam(value = "email", required = false) String email,
+                                                            @RequestParam(value = "emailPrefix", required = false) String emailPrefix,
+                                                            @RequestParam(value = "page", defaultValue = "0") int page,
+                                                            @RequestParam(value = "size", defaultValue = "50") int size,
+                                                            @RequestParam(value = "sort", defaultValue = "id") String sort,
+                                                            @RequestParam(value = "direction", defaultValue = "ASC") Sort.Direction direction) {
+    return () -> {
+      HttpHeaders headers = new HttpHeaders();
+
+      ContactSearchCriteria criteria = new ContactSearchCriteria(lastName, lastNamePrefix, city, state, zip, email, emailPrefix);
+      Page<Contact> results = contactService.searchContacts(criteria, page, size, sort, direction);
+      headers.set(TOTAL_COUNT_HEADER, String.valueOf(results.getTotalElements()));
+
+      return ResponseEntity
+        .ok()
+        .headers(headers)
+        .body(results.getContent());
+    };
+  }
+
+  /**
+   * Type-ahead suggestions for contacts whose first or last name, email or phone number start
+   * with the words typed so far.  Served from memory, without a database query.
+   */
+  @GetMapping("/suggest")
+  public HttpEntity<List<ContactSuggestion>> suggestContacts(@RequestParam(value = "q") String query,
+                                                             @RequestParam(value = "limit", defaultValue = "10") int limit) {
     HttpHeaders headers = new HttpHeaders();
-    headers.setContentType(APPLICATION_JSON_UTF8);
 
     return ResponseEntity
       .ok()
       .headers(headers)
-      .body(contactService.createContact(contact));
+      .body(contactService.suggestContacts(query, limit));
   }
 
-  @PutMapping("/{id}")
-  public HttpEntity<Contact> updateContact(@PathVariable(value = "id") long id, @RequestBody Contact contact) {
+  /**
+   * Reverse phone lookup: the contacts owning a number, written in any common format.
+   */
+  @GetMapping("/by-phone/{number:.+}")
+  public Callable<HttpEntity<List<Contact>>> getContactsByPhone(@PathVariable(value = "number") String number) {
+    return () -> {
+      HttpHeaders headers = new HttpHeaders();
+
+      return ResponseEntity
+        .ok()
+        .headers(headers)
+        .body(contactService.getContactsByPhone(number));
+    };
+  }
+
+  @PostMapping
+  public Callable<HttpEntity<Contact>> createContact(@RequestBody Contact contact) {
+    return () -> {
+      HttpHeaders headers = new HttpHeaders();
+
+      return ResponseEntity
+        .ok()
+        .headers(headers)
+        .body(contactService.createContact(contact));
+    };
+  }
+
+  @PostMapping("/batch")
+  public Callable<HttpEntity<List<BatchItemResult>>> createContacts(@RequestBody List<Contact> contacts) {
+    return () -> {
+      HttpHeaders headers = new HttpHeaders();
+
+      return ResponseEntity
+        .ok()
+        .headers(headers)
+        .body(contactService.createContacts(contacts));
+    };
+  }
+
+  /**
+   * Imports newline delimited JSON, one contact per line, without holding the upload in memory.
+   */
+  @PostMapping(value = "/import", consumes = APPLICATION_NDJSON_VALUE)
+  public HttpEntity<ImportSummary> importContacts(InputStream ndjson) throws IOException {
     HttpHeaders headers = new HttpHeaders();
-    headers.setContentType(APPLICATION_JSON_UTF8);
 
     return ResponseEntity
       .ok()
       .headers(headers)
-      .body(contactService.updateContact(id, contact));
+      .body(contactImportService.importContacts(ndjson));
+  }
+
+  @PutMapping("/batch")
+  public Callable<HttpEntity<List<BatchItemResult>>> updateContacts(@RequestBody List<Contact> contacts) {
+    return () -> {
+      HttpHeaders headers = new HttpHeaders();
+
+      return ResponseEntity
+        .ok()
+        .headers(headers)
+        .body(contactService.updateContacts(contacts));
+    };
+  }
+
+  @DeleteMapping("/batch")
+  public Callable<HttpEntity<List<BatchItemResult>>> deleteContacts(@RequestBody List<Long> ids) {
+    return () -> {
+      HttpHeaders headers = new HttpHeaders();
+
+      return ResponseEntity
+        .ok()
+        .headers(headers)
+        .body(contactService.deleteContacts(ids));
+    };
+  }
+
+  /**
+   * Overwrites a contact.  With an If-Match header holding the contact's ETag the update only
+   * succeeds if nobody has changed the contact since, otherwise it fails with 412.
+   */
+  @PutMapping("/{id}")
+  public Callable<HttpEntity<Contact>> updateContact(@PathVariable(value = "id") long id, @RequestBody Contact contact,
+                                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                     @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+    long contactId = requireContactId(id);
+    return () -> {
+      HttpHeaders headers = new HttpHeaders();
+
+      Contact updatedContact = contactService.updateContact(contactId, contact, expectedVersion(ifMatch));
+      setValidators(headers, updatedContact, prefersCbor(accept));
+
+      return ResponseEntity
+        .ok()
+        .headers(headers)
+        .body(updatedContact);
+    };
   }
 
+  /**
+   * A contact, with its version as a strong ETag; If-None-Match with the current ETag gets a 304.
+   */
   @GetMapping("/{id}")
-  public HttpEntity<Contact> getContact(@PathVariable(value = "id") long id) {
-    HttpHeaders headers = new HttpHeaders();
-    headers.setContentType(APPLICATION_JSON_UTF8);
+  public Callable<HttpEntity<Contact>> getContact(@PathVariable(value = "id") long id,
+                                                  @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+    long contactId = requireContactId(id);
+    return () -> {
+      HttpHeaders headers = new HttpHeaders();
 
-    return ResponseEntity
-      .ok()
-      .headers(headers)
-      .body(contactService.getContact(id));
+      Contact contact = contactService.getContact(contactId);
+      setValidators(headers, contact, prefersCbor(accept));
+
+      return ResponseEntity
+        .ok()
+        .headers(headers)
+        .body(contact);
+    };
   }
 
   @DeleteMapping("/{id}")
-  public HttpEntity<?> deleteContact(@PathVariable(value = "id") long id) {
-    contactService.deleteContact(id);
+  public Callable<HttpEntity<?>> deleteContact(@PathVariable(value = "id") long id) {
+    long contactId = requireContactId(id);
+    return () -> {
+      contactService.deleteContact(contactId);
 
-    return ResponseEntity
-      .ok()
-      .build();
+      return ResponseEntity
+        .ok()
+        .build();
+    };
+  }
+
+  /**
+   * Ids are assigned from 1, so anything lower is not found without asking the service.
+   */
+  static long requireContactId(long id) {
+    if(id < 1) {
+      throw new ContactNotFoundException();
+    }
+    return id;
   }
 
-  @ExceptionHandler(ContactNotFoundException.class)
-  @ResponseStatus(HttpStatus.NOT_FOUND)
-  @ResponseBody
-  ErrorInfo contactNotFoundHandler(HttpServletRequest request, Exception ex) {
-    logger.error("Contact not found due to {}", ex.toString());
-    return new ErrorInfo(HttpStatus.NOT_FOUND.value(), "Contact not found", request.getRequestURI(), request.getParameterMap());
+  private static void setValidators(HttpHeaders headers, Contact contact, boolean cbor) {
+    headers.setETag(representationEtag(String.format("\"%d\"", contact.getVersion()), cbor));
+    headers.setVary(Collections.singletonList(HttpHeaders.ACCEPT));
+    if(contact.getUpdatedAt() != null) {
+      headers.setLastModified(contact.getUpdatedAt().toEpochMilli());
+    }
   }
 
-  @ExceptionHandler(ContactAlreadyExistsException.class)
-  @ResponseStatus(HttpStatus.BAD_REQUEST)
-  @ResponseBody
-  ErrorInfo contactAlreadyExistsHandler(HttpServletRequest request, Exception ex) {
-    logger.error("Cannot create contact due to {}", ex.toString());
-    return new ErrorInfo(HttpStatus.BAD_REQUEST.value(), "Contact already exists", request.getRequestURI(), request.getParameterMap());
+  /**
+   * A strong ETag must differ between representations, so CBOR responses get their own.
+   */
+  private static String representationEtag(String etag, boolean cbor) {
+    return cbor ? etag.substring(0, etag.length() - 1) + CBOR_ETAG_SUFFIX + "\"" : etag;
   }
 
-  @ExceptionHandler(Exception.class)
-  @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
-  @ResponseBody
-  ErrorInfo catchAllExceptionHandler(HttpServletRequest request, Exception ex) {
-    logger.error("Encountered the following unhandled exception in ContactController: {}. Printing stack trace.", ex.toString());
-    ex.printStackTrace();
-    return new ErrorInfo(HttpStatus.INTERNAL_SERVER_ERROR.value(), ex.toString(), request.getRequestURI(), request.getParameterMap());
+  /**
+   * Whether CBOR is what the Accept header asks for first; JSON when both are equally acceptable,
+   * as with a wildcard, or when the header cannot be parsed.
+   */
+  static boolean prefersCbor(String accept) {
+    if(accept == null) {
+      return false;
+    }
+    try {
+      List<MediaType> acceptedTypes = MediaType.parseMediaTypes(accept);
+      MediaType.sortBySpecificityAndQuality(acceptedTypes);
+      for(MediaType acceptedType : acceptedTypes) {
+        if(APPLICATION_JSON.isCompatibleWith(acceptedType)) {
+          return false;
+        }
+        if(APPLICATION_CBOR.isCompatibleWith(acceptedType)) {
+          return true;
+        }
+      }
+    } catch (InvalidMediaTypeException ex) {
+      return false;
+    }
+    return false;
+  }
+
+  /**
+   * @param ifMatch the If-Match header, holding an ETag from {@link #setValidators}
+   * @return the version it names, or any version if there is no header or it is "*"
+   * @throws ContactVersionConflictException if it names no version, so cannot match
+   */
+  private static long expectedVersion(String ifMatch) throws ContactVersionConflictException {
+    if(ifMatch == null || ifMatch.trim().equals("*")) {
+      return ContactService.ANY_VERSION;
+    }
+    String version = ifMatch.trim().replace("\"", "").replace(CBOR_ETAG_SUFFIX, "");
+    try {
+      return Long.parseLong(version);
+    } catch (NumberFormatException ex) {
+      throw new ContactVersionConflictException();
+    }
+  }
+
+  private void writeContact(JsonGenerator generator, Contact contact) {
+    try {
+      generator.writeObject(contact);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  /**
+   * Sets the timeout of the export's async write, just before it starts.
+   */
+  private static class ExportTimeout implements CallableProcessingInterceptor {
+
+    private final long timeoutMillis;
+
+    ExportTimeout(long timeoutMillis) {
+      this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+      ((AsyncWebRequest) request).setTimeout(timeoutMillis);
+    }
   }
 
 }
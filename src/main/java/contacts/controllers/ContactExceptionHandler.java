@@ -0,0 +1,137 @@
+package contacts.controllers;
+
+import contacts.exceptions.CachedErrorBody;
+import contacts.exceptions.ContactAlreadyExistsException;
+import contacts.exceptions.ContactNotFoundException;
+import contacts.exceptions.ContactVersionConflictException;
+import contacts.exceptions.ErrorInfo;
+import contacts.exceptions.InvalidRequestException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON_UTF8;
+
+/**
+ * Error responses for the contacts API, servlet and reactive alike; an error a Mono or Flux
+ * ends with is resolved here just as one thrown by a handler.
+ */
+@RestControllerAdvice(assignableTypes = {ContactController.class, ReactiveContactController.class})
+class ContactExceptionHandler {
+
+  private static final Logger logger = LogManager.getLogger(ContactExceptionHandler.class);
+
+  private static final CachedErrorBody NOT_FOUND_BODY = new CachedErrorBody(HttpStatus.NOT_FOUND.value(), "Contact not found");
+  private static final CachedErrorBody ALREADY_EXISTS_BODY = new CachedErrorBody(HttpStatus.BAD_REQUEST.value(), "Contact already exists");
+  private static final CachedErrorBody VERSION_CONFLICT_BODY = new CachedErrorBody(HttpStatus.PRECONDITION_FAILED.value(), "Contact has been modified");
+  private static final CachedErrorBody BUSY_BODY = new CachedErrorBody(HttpStatus.SERVICE_UNAVAILABLE.value(), "Server busy");
+
+  private final ConcurrentMap<String, CachedErrorBody> invalidArgumentBodies = new ConcurrentHashMap<>();
+
+  // client errors are sampled, so a flood of them cannot flood the log
+  private final SampledLogger notFoundLog;
+  private final SampledLogger alreadyExistsLog;
+  private final SampledLogger versionConflictLog;
+  private final SampledLogger invalidRequestLog;
+  private final SampledLogger busyLog;
+
+  // and so are unhandled ones, which keep their stack traces
+  private final SampledLogger unhandledLog;
+
+  ContactExceptionHandler(@Value("${contacts.errors.logged-per-second:10}") double errorsLoggedPerSecond) {
+    this.notFoundLog = new SampledLogger(logger, errorsLoggedPerSecond);
+    this.alreadyExistsLog = new SampledLogger(logger, errorsLoggedPerSecond);
+    this.versionConflictLog = new SampledLogger(logger, errorsLoggedPerSecond);
+    this.invalidRequestLog = new SampledLogger(logger, errorsLoggedPerSecond);
+    this.busyLog = new SampledLogger(logger, errorsLoggedPerSecond);
+    this.unhandledLog = new SampledLogger(logger, errorsLoggedPerSecond);
+  }
+
+  @ExceptionHandler(ContactNotFoundException.class)
+  HttpEntity<?> contactNotFoundHandler(HttpServletRequest request, Exception ex) {
+    notFoundLog.error("Contact not found due to {}", ex);
+    return errorResponse(request, NOT_FOUND_BODY);
+  }
+
+  @ExceptionHandler(ContactAlreadyExistsException.class)
+  HttpEntity<?> contactAlreadyExistsHandler(HttpServletRequest request, Exception ex) {
+    alreadyExistsLog.error("Cannot create contact due to {}", ex);
+    return errorResponse(request, ALREADY_EXISTS_BODY);
+  }
+
+  @ExceptionHandler(ContactVersionConflictException.class)
+  HttpEntity<?> contactVersionConflictHandler(HttpServletRequest request, Exception ex) {
+    versionConflictLog.error("Cannot update contact due to {}", ex);
+    return errorResponse(request, VERSION_CONFLICT_BODY);
+  }
+
+  @ExceptionHandler(InvalidRequestException.class)
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  ErrorInfo invalidRequestHandler(HttpServletRequest request, Exception ex) {
+    invalidRequestLog.error("Invalid request due to {}", ex);
+    return new ErrorInfo(HttpStatus.BAD_REQUEST.value(), ex.getMessage(), request.getRequestURI(), request.getParameterMap());
+  }
+
+  /**
+   * A path variable or parameter that does not convert, such as a non-numeric id, is the
+   * client's mistake: 400 rather than the 500 and stack trace of the catch-all.
+   */
+  @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+  HttpEntity<?> argumentTypeMismatchHandler(HttpServletRequest request, MethodArgumentTypeMismatchException ex) {
+    invalidRequestLog.error("Invalid request due to {}", ex);
+    // keyed by the argument's name in the contacts controllers, so the cache is bounded
+    return errorResponse(request, invalidArgumentBodies.computeIfAbsent(ex.getName(),
+      name -> new CachedErrorBody(HttpStatus.BAD_REQUEST.value(), String.format("Invalid value for '%s'", name))));
+  }
+
+  /**
+   * In the async execution mode, a request the executor's queue has no room for, or that waited
+   * in it past the timeout.
+   */
+  @ExceptionHandler({RejectedExecutionException.class, AsyncRequestTimeoutException.class})
+  HttpEntity<?> busyHandler(HttpServletRequest request, Exception ex) {
+    busyLog.error("Cannot handle request due to {}", ex);
+    return errorResponse(request, BUSY_BODY);
+  }
+
+  @ExceptionHandler(Exception.class)
+  @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+  ErrorInfo catchAllExceptionHandler(HttpServletRequest request, HandlerMethod handler, Exception ex) {
+    unhandledLog.errorWithStackTrace("Encountered an unhandled exception in {}", handler.getBeanType().getSimpleName(), ex);
+    return new ErrorInfo(HttpStatus.INTERNAL_SERVER_ERROR.value(), ex.toString(), request.getRequestURI(), request.getParameterMap());
+  }
+
+  /**
+   * The error body for a fixed message, written from the cache unless the request has query
+   * parameters to echo or would rather have CBOR.
+   */
+  private static HttpEntity<?> errorResponse(HttpServletRequest request, CachedErrorBody body) {
+    Map<String, String[]> params = request.getParameterMap();
+    if(params.isEmpty() && !ContactController.prefersCbor(request.getHeader(HttpHeaders.ACCEPT))) {
+      return ResponseEntity
+        .status(body.status)
+        .contentType(APPLICATION_JSON_UTF8)
+        .body(body.render(request.getRequestURI()));
+    }
+    return ResponseEntity
+      .status(body.status)
+      .body(new ErrorInfo(body.status, body.message, request.getRequestURI(), params));
+  }
+
+}
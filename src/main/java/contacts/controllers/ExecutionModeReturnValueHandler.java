@@ -0,0 +1,88 @@
+package contacts.controllers;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.mvc.method.annotation.CallableMethodReturnValueHandler;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.Callable;
+
+/**
+ * Runs handlers' Callables according to the execution mode.  In async mode they are handed to
+ * Spring MVC's async support, which calls them on its task executor and dispatches the result
+ * back to the container.  Otherwise they are called on the request thread and their result is
+ * handled as if the handler had returned it directly, with no async dispatch.
+ *
+ * <p>Must come before Spring's own {@link CallableMethodReturnValueHandler}.
+ */
+public class ExecutionModeReturnValueHandler implements HandlerMethodReturnValueHandler {
+
+  private final boolean async;
+  private final HandlerMethodReturnValueHandler callableHandler = new CallableMethodReturnValueHandler();
+  private final HandlerMethodReturnValueHandler resultHandler;
+
+  /**
+   * Constructor.
+   *
+   * @param async         whether Callables run on the async executor
+   * @param resultHandler handles what a Callable returns when it is called on the request thread
+   */
+  public ExecutionModeReturnValueHandler(boolean async, HandlerMethodReturnValueHandler resultHandler) {
+    this.async = async;
+    this.resultHandler = resultHandler;
+  }
+
+  @Override
+  public boolean supportsReturnType(MethodParameter returnType) {
+    return Callable.class.isAssignableFrom(returnType.getParameterType());
+  }
+
+  @Override
+  public void handleReturnValue(Object returnValue, MethodParameter returnType, ModelAndViewContainer mavContainer,
+                                NativeWebRequest webRequest) throws Exception {
+    if(async || returnValue == null) {
+      callableHandler.handleReturnValue(returnValue, returnType, mavContainer, webRequest);
+      return;
+    }
+
+    Object result = ((Callable<?>) returnValue).call();
+    resultHandler.handleReturnValue(result, new CallableResultParameter(returnType), mavContainer, webRequest);
+  }
+
+  /**
+   * The handler's return type with Callable unwrapped, as Spring describes an async result.
+   */
+  private static class CallableResultParameter extends MethodParameter {
+
+    private final ResolvableType resultType;
+
+    CallableResultParameter(MethodParameter callableType) {
+      super(callableType);
+      this.resultType = ResolvableType.forMethodParameter(callableType).getGeneric();
+    }
+
+    private CallableResultParameter(CallableResultParameter original) {
+      super(original);
+      this.resultType = original.resultType;
+    }
+
+    @Override
+    public Class<?> getParameterType() {
+      return resultType.resolve(Object.class);
+    }
+
+    @Override
+    public Type getGenericParameterType() {
+      return resultType.getType();
+    }
+
+    @Override
+    public CallableResultParameter clone() {
+      return new CallableResultParameter(this);
+    }
+  }
+
+}
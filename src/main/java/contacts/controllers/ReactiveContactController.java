@@ -0,0 +1,81 @@
+package contacts.controllers;
+
+import contacts.exceptions.ContactNotFoundException;
+import contacts.models.Contact;
+import contacts.repositories.ReactiveContactRepository;
+import contacts.services.ContactService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.concurrent.Callable;
+
+import static contacts.controllers.ContactController.requireContactId;
+import static org.springframework.http.MediaType.APPLICATION_STREAM_JSON_VALUE;
+
+/**
+ * The contacts API for high fan-out consumers, as Flux and Mono.  The JDBC calls do not run on
+ * Tomcat's threads but on the bounded JDBC scheduler: reads through
+ * {@link ReactiveContactRepository}, writes through {@link ContactService}, so they keep its
+ * indexes and change log.  Streamed results are written by Spring MVC's bounded async executor,
+ * whose threads still block on a slow client's socket.
+ */
+@RestController
+@RequestMapping("/reactive/contacts")
+public class ReactiveContactController {
+
+  private final ReactiveContactRepository reactiveContactRepo;
+  private final ContactService contactService;
+  private final Scheduler jdbcScheduler;
+
+  @Autowired
+  public ReactiveContactController(ReactiveContactRepository reactiveContactRepo, ContactService contactService,
+                                   @Qualifier(ReactiveContactRepository.JDBC_SCHEDULER) Scheduler jdbcScheduler) {
+    this.reactiveContactRepo = reactiveContactRepo;
+    this.contactService = contactService;
+    this.jdbcScheduler = jdbcScheduler;
+  }
+
+  /**
+   * Every contact after the given id, in id order, one JSON document per line.  Written as the
+   * client reads, so a slow client slows the reads rather than filling memory.
+   */
+  @GetMapping(produces = APPLICATION_STREAM_JSON_VALUE)
+  public Flux<Contact> getAllContacts(@RequestParam(value = "after", defaultValue = "0") long after) {
+    return reactiveContactRepo.findAllAfter(after);
+  }
+
+  @GetMapping("/{id}")
+  public Mono<Contact> getContact(@PathVariable(value = "id") long id) {
+    return reactiveContactRepo.findById(requireContactId(id))
+      .switchIfEmpty(Mono.error(new ContactNotFoundException()));
+  }
+
+  @PostMapping
+  public Mono<Contact> createContact(@RequestBody Contact contact) {
+    return onJdbcScheduler(() -> contactService.createContact(contact));
+  }
+
+  @PutMapping("/{id}")
+  public Mono<Contact> updateContact(@PathVariable(value = "id") long id, @RequestBody Contact contact) {
+    long contactId = requireContactId(id);
+    return onJdbcScheduler(() -> contactService.updateContact(contactId, contact));
+  }
+
+  @DeleteMapping("/{id}")
+  public Mono<Void> deleteContact(@PathVariable(value = "id") long id) {
+    long contactId = requireContactId(id);
+    return Mono.fromRunnable(() -> contactService.deleteContact(contactId))
+      .subscribeOn(jdbcScheduler)
+      .then();
+  }
+
+  private <T> Mono<T> onJdbcScheduler(Callable<T> call) {
+    return Mono.fromCallable(call)
+      .subscribeOn(jdbcScheduler);
+  }
+
+}
@@ -0,0 +1,77 @@
+package contacts.controllers;
+
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logs at most a fixed number of errors a second, so a flood of identical errors costs a rate
+ * check per request rather than a log event, and cannot fill the async loggers' ring buffer,
+ * where errors wait for room.  What is dropped is counted and reported with the next error that
+ * is logged.
+ *
+ * <p>Lock-free: a dropped error costs a read of the next time one may be logged and an add to a
+ * striped counter, so request threads hitting the same error never queue on a monitor.
+ */
+public class SampledLogger {
+
+  private final Logger logger;
+  private final long intervalNanos;
+  private final AtomicLong nextLogNanos;
+  private final LongAdder suppressed = new LongAdder();
+
+  public SampledLogger(Logger logger, double errorsPerSecond) {
+    this.logger = logger;
+    this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / errorsPerSecond);
+    this.nextLogNanos = new AtomicLong(System.nanoTime());
+  }
+
+  /**
+   * @param message a message with one parameter, the exception
+   * @param ex      the exception, logged without its stack trace
+   */
+  public void error(String message, Exception ex) {
+    if(!tryAcquire()) {
+      suppressed.increment();
+      return;
+    }
+
+    long dropped = suppressed.sumThenReset();
+    if(dropped == 0) {
+      logger.error(message, ex.toString());
+    } else {
+      logger.error(message + " ({} similar errors not logged)", ex.toString(), dropped);
+    }
+  }
+
+  /**
+   * @param message a message with one parameter
+   * @param param   the parameter
+   * @param ex      the exception, logged with its stack trace
+   */
+  public void errorWithStackTrace(String message, Object param, Throwable ex) {
+    if(!tryAcquire()) {
+      suppressed.increment();
+      return;
+    }
+
+    long dropped = suppressed.sumThenReset();
+    if(dropped == 0) {
+      logger.error(message, param, ex);
+    } else {
+      logger.error(message + " ({} similar errors not logged)", param, dropped, ex);
+    }
+  }
+
+  /**
+   * @return whether this error may be logged; of threads racing for the same slot, one wins
+   */
+  private boolean tryAcquire() {
+    long now = System.nanoTime();
+    long next = nextLogNanos.get();
+    return now - next >= 0 && nextLogNanos.compareAndSet(next, now + intervalNanos);
+  }
+
+}
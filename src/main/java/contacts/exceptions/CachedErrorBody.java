@@ -0,0 +1,48 @@
+package contacts.exceptions;
+
+import com.fasterxml.jackson.core.util.BufferRecyclers;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The JSON of an {@link ErrorInfo} with no query parameters, serialized once up to the url, which
+ * is all that changes from one request to the next.  Only for fixed messages; one built per
+ * client-supplied message would never be reused.
+ */
+@SuppressWarnings({"WeakerAccess"})
+public final class CachedErrorBody {
+
+  private static final byte[] SUFFIX = "\",\"params\":{}}".getBytes(StandardCharsets.UTF_8);
+
+  public final int status;
+  public final String message;
+  private final byte[] prefix;
+
+  /**
+   * Constructor.
+   *
+   * @param status  the http response status being sent
+   * @param message the message for every error of this kind
+   */
+  public CachedErrorBody(int status, String message) {
+    this.status = status;
+    this.message = message;
+    this.prefix = ("{\"status\":" + status + ",\"message\":\"" + new String(BufferRecyclers.getJsonStringEncoder().quoteAsString(message))
+      + "\",\"url\":\"").getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @param url the requests URL
+   * @return the body as Jackson would write the equivalent ErrorInfo, in UTF-8
+   */
+  public byte[] render(String url) {
+    // the encoder is per thread, so it is looked up on each call rather than kept
+    byte[] quotedUrl = BufferRecyclers.getJsonStringEncoder().quoteAsUTF8(url);
+    byte[] body = new byte[prefix.length + quotedUrl.length + SUFFIX.length];
+    System.arraycopy(prefix, 0, body, 0, prefix.length);
+    System.arraycopy(quotedUrl, 0, body, prefix.length, quotedUrl.length);
+    System.arraycopy(SUFFIX, 0, body, prefix.length + quotedUrl.length, SUFFIX.length);
+    return body;
+  }
+
+}
@@ -0,0 +1,5 @@
+package contacts.exceptions;
+
+public class ContactVersionConflictException extends RuntimeException {
+
+}
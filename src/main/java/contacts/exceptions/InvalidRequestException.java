@@ -0,0 +1,7 @@
+package contacts.exceptions;
+
+public class InvalidRequestException extends RuntimeException {
+  public InvalidRequestException(String message) {
+    super(message);
+  }
+}
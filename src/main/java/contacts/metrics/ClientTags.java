@@ -0,0 +1,65 @@
+package contacts.metrics;
+
+import io.micrometer.core.instrument.Tag;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * The {@code client} tag put on request timings: the name of the authenticated client, or
+ * {@value #NO_CLIENT} for work done outside an authenticated request.
+ */
+public final class ClientTags {
+
+  public static final String CLIENT = "client";
+  public static final String NO_CLIENT = "none";
+
+  // where the client is kept for meters recorded after the security context has been cleared
+  static final String CLIENT_ATTRIBUTE = ClientTags.class.getName() + ".client";
+
+  private ClientTags() {
+  }
+
+  /**
+   * @return the client tag for the current thread, from its security context or its request
+   */
+  public static Tag currentClient() {
+    String client = authenticatedClient();
+    if(client == null) {
+      RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+      client = attributes == null ? null : (String) attributes.getAttribute(CLIENT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    }
+    return Tag.of(CLIENT, client == null ? NO_CLIENT : client);
+  }
+
+  /**
+   * @return the client tag for a request remembered with {@link #remember}
+   */
+  public static Tag forRequest(HttpServletRequest request) {
+    Object client = request.getAttribute(CLIENT_ATTRIBUTE);
+    return Tag.of(CLIENT, client == null ? NO_CLIENT : (String) client);
+  }
+
+  /**
+   * Keeps the authenticated client on the request, so it can still be tagged once the security
+   * filters have finished with the request.
+   */
+  public static void remember(HttpServletRequest request) {
+    String client = authenticatedClient();
+    if(client != null) {
+      request.setAttribute(CLIENT_ATTRIBUTE, client);
+    }
+  }
+
+  private static String authenticatedClient() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if(authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+      return null;
+    }
+    return authentication.getName();
+  }
+}
@@ -0,0 +1,24 @@
+package contacts.metrics;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.actuate.metrics.web.servlet.DefaultWebMvcTagsProvider;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Adds the {@link ClientTags client} to Spring MVC's {@code http.server.requests} timings.
+ */
+public class ClientWebMvcTagsProvider extends DefaultWebMvcTagsProvider {
+
+  @Override
+  public Iterable<Tag> getTags(HttpServletRequest request, HttpServletResponse response, Object handler, Throwable exception) {
+    return Tags.of(super.getTags(request, response, handler, exception)).and(ClientTags.forRequest(request));
+  }
+
+  @Override
+  public Iterable<Tag> getLongRequestTags(HttpServletRequest request, Object handler) {
+    return Tags.of(super.getLongRequestTags(request, handler)).and(ClientTags.forRequest(request));
+  }
+}
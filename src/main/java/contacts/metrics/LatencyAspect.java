@@ -0,0 +1,69 @@
+package contacts.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times calls into the service and repository layers.
+ *
+ * <p>Public service methods are recorded in {@code contacts.service} and Spring Data repository
+ * calls in {@code contacts.repository}, each tagged by class, method, {@link ClientTags client}
+ * and the simple name of any exception thrown.  Only calls made through the Spring proxies are
+ * seen, so a service calling its own methods is timed once.
+ */
+@Aspect
+public class LatencyAspect {
+
+  static final String SERVICE_TIMER = "contacts.service";
+  static final String REPOSITORY_TIMER = "contacts.repository";
+
+  private final MeterRegistry meterRegistry;
+  private final ConcurrentMap<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+  public LatencyAspect(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Around("execution(public * contacts.services.*Service.*(..))")
+  public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+    return time(joinPoint, SERVICE_TIMER, joinPoint.getSignature().getDeclaringType().getSimpleName());
+  }
+
+  @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+  public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+    // the declaring type of inherited methods is the Spring Data interface, so name the repository by its proxy
+    Object repository = joinPoint.getThis();
+    return time(joinPoint, REPOSITORY_TIMER, repositoryNames.computeIfAbsent(repository.getClass(), proxyClass -> {
+      Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(repository);
+      return interfaces.length == 0 ? proxyClass.getSimpleName() : interfaces[0].getSimpleName();
+    }));
+  }
+
+  private Object time(ProceedingJoinPoint joinPoint, String name, String className) throws Throwable {
+    long start = System.nanoTime();
+    String exception = "None";
+    try {
+      return joinPoint.proceed();
+    } catch (Throwable e) {
+      exception = e.getClass().getSimpleName();
+      throw e;
+    } finally {
+      Timer.builder(name)
+        .tag("class", className)
+        .tag("method", joinPoint.getSignature().getName())
+        .tag("exception", exception)
+        .tags(Tags.of(ClientTags.currentClient()))
+        .register(meterRegistry)
+        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package contacts.models;
+
+@SuppressWarnings({"WeakerAccess", "unused"})
+public class BatchItemResult {
+
+  public final int index;
+  public final Long id;
+  public final int status;
+  public final String message;
+
+  /**
+   * Constructor.
+   *
+   * @param index   position of the item in the request
+   * @param id      id of the contact the item refers to, if known
+   * @param status  the http status the item would have had as a single request
+   * @param message why the item failed, null when it succeeded
+   */
+  public BatchItemResult(int index, Long id, int status, String message) {
+    this.index = index;
+    this.id = id;
+    this.status = status;
+    this.message = message;
+  }
+
+}
@@ -6,34 +6,62 @@ import contacts.models.contactattributes.Phone;
 import contacts.models.converters.AddressConverter;
 import contacts.models.converters.NameConverter;
 import contacts.models.converters.PhoneArrayConverter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
+import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Locale;
 
 @Data
 @Entity
 @NoArgsConstructor
-@Table(name = "contact")
+@EqualsAndHashCode(exclude = {"version", "updatedAt", "changeSeq", "searchLastName", "searchCity", "searchState", "searchZip", "searchEmail"})
+@Table(name = "contact", indexes = {
+  @Index(name = "idx_contact_search_last_name", columnList = "search_last_name"),
+  @Index(name = "idx_contact_search_state_city", columnList = "search_state,search_city"),
+  @Index(name = "idx_contact_search_city", columnList = "search_city"),
+  @Index(name = "idx_contact_search_zip", columnList = "search_zip"),
+  @Index(name = "idx_contact_search_email", columnList = "search_email"),
+  @Index(name = "idx_contact_change_seq", columnList = "change_seq,id")
+})
 public class Contact {
 
+  // ids are handed out in blocks of 50 (a table on MySQL) so Hibernate can batch inserts,
+  // which it cannot do with IDENTITY columns
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "contact_id")
+  @GenericGenerator(name = "contact_id", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator", parameters = {
+    @Parameter(name = "sequence_name", value = "contact_id_seq"),
+    @Parameter(name = "increment_size", value = "50"),
+    @Parameter(name = "optimizer", value = "pooled-lo")
+  })
   @Column(name = "id")
   private Long id;
 
+  @Valid
   @NotNull
   @Column(name = "name")
   @Convert(converter = NameConverter.class)
   private Name name;
 
+  @Valid
   @NotNull
   @Column(name = "address")
   @Convert(converter = AddressConverter.class)
   private Address address;
 
+  @Valid
   @NotNull
   @Column(name = "phone")
   @Convert(converter = PhoneArrayConverter.class)
@@ -43,6 +71,84 @@ public class Contact {
   @Column(name = "email")
   private String email;
 
+  // bumped on every write; sent as the contact's ETag and checked against If-Match on update
+  @JsonIgnore
+  @Version
+  @Column(name = "version", nullable = false)
+  private long version;
+
+  @JsonIgnore
+  @Column(name = "updated_at")
+  private Instant updatedAt;
+
+  // change sequence of the transaction that last wrote the contact, stamped by ContactService
+  // just before it commits; orders the change feed
+  @JsonIgnore
+  @Setter(AccessLevel.NONE)
+  @Column(name = "change_seq", insertable = false, updatable = false)
+  private Long changeSeq;
+
+  // lower-cased copies of the searchable fields, which the database cannot index inside the json
+  // columns; derived from name, address and email whenever the contact is written
+  @JsonIgnore
+  @Setter(AccessLevel.NONE)
+  @Column(name = "search_last_name")
+  private String searchLastName;
+
+  @JsonIgnore
+  @Setter(AccessLevel.NONE)
+  @Column(name = "search_city")
+  private String searchCity;
+
+  @JsonIgnore
+  @Setter(AccessLevel.NONE)
+  @Column(name = "search_state")
+  private String searchState;
+
+  @JsonIgnore
+  @Setter(AccessLevel.NONE)
+  @Column(name = "search_zip")
+  private String searchZip;
+
+  @JsonIgnore
+  @Setter(AccessLevel.NONE)
+  @Column(name = "search_email")
+  private String searchEmail;
+
+  /**
+   * @param value a searchable field
+   * @return the form it is stored and searched in
+   */
+  public static String searchKey(String value) {
+    return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * @return the time to record for a write made now; whole milliseconds, which is what the
+   * database keeps and what change feed watermarks hold
+   */
+  public static Instant writeTime() {
+    return Instant.now().truncatedTo(ChronoUnit.MILLIS);
+  }
+
+  @PrePersist
+  @PreUpdate
+  void beforeWrite() {
+    updateSearchColumns();
+    updatedAt = writeTime();
+  }
+
+  /**
+   * Derives the search columns from the current name, address and email.
+   */
+  public void updateSearchColumns() {
+    searchLastName = name == null ? null : searchKey(name.getLast());
+    searchCity = address == null ? null : searchKey(address.getCity());
+    searchState = address == null ? null : searchKey(address.getState());
+    searchZip = address == null ? null : searchKey(address.getZip());
+    searchEmail = searchKey(email);
+  }
+
   @Override
   public String toString() {
     if(id == null) {
@@ -0,0 +1,33 @@
+package contacts.models;
+
+import java.time.Instant;
+
+@SuppressWarnings({"WeakerAccess", "unused"})
+public class ContactChange {
+
+  public enum Type {
+    UPSERT,
+    DELETE
+  }
+
+  public final Type type;
+  public final long id;
+  public final Instant time;
+  public final Contact contact;
+
+  /**
+   * Constructor.
+   *
+   * @param type    whether the contact was created or updated, or deleted
+   * @param id      id of the contact
+   * @param time    when the change was made
+   * @param contact the contact as it now is, null when it was deleted
+   */
+  public ContactChange(Type type, long id, Instant time, Contact contact) {
+    this.type = type;
+    this.id = id;
+    this.time = time;
+    this.contact = contact;
+  }
+
+}
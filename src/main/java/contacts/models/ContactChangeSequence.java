@@ -0,0 +1,34 @@
+package contacts.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * The one row counting committed writes to contacts.  Every write transaction advances it once,
+ * just before it commits; see ContactChangeSequenceRepository.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "contact_change_sequence")
+public class ContactChangeSequence {
+
+  public static final int ID = 1;
+
+  @Id
+  @Column(name = "id")
+  private int id;
+
+  @Column(name = "seq", nullable = false)
+  private long seq;
+
+  // by the database's clock, so one clock for every instance
+  @Column(name = "changed_at")
+  private Instant changedAt;
+
+}
@@ -0,0 +1,25 @@
+package contacts.models;
+
+import java.util.List;
+
+@SuppressWarnings({"WeakerAccess", "unused"})
+public class ContactChanges {
+
+  public final List<ContactChange> changes;
+  public final String watermark;
+  public final boolean more;
+
+  /**
+   * Constructor.
+   *
+   * @param changes   the changes after the requested watermark, oldest first
+   * @param watermark token to pass as 'since' for the changes after these
+   * @param more      whether there are further changes already waiting
+   */
+  public ContactChanges(List<ContactChange> changes, String watermark, boolean more) {
+    this.changes = changes;
+    this.watermark = watermark;
+    this.more = more;
+  }
+
+}
@@ -0,0 +1,36 @@
+package contacts.models;
+
+import java.time.Instant;
+
+/**
+ * Validator for the whole contact list: the change sequence, which every committed write
+ * advances whatever the clocks of the writers, and the database's time of the latest one.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public class ContactListVersion {
+
+  // before the first write
+  public static final ContactListVersion INITIAL = new ContactListVersion(0, null);
+
+  public final long version;
+  public final Instant lastModified;
+
+  /**
+   * Constructor.
+   *
+   * @param version      number of write transactions committed
+   * @param lastModified when the latest committed, null before the first
+   */
+  public ContactListVersion(long version, Instant lastModified) {
+    this.version = version;
+    this.lastModified = lastModified;
+  }
+
+  /**
+   * @return a strong entity tag for the list
+   */
+  public String etag() {
+    return "\"" + version + "\"";
+  }
+
+}
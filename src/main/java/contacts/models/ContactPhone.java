@@ -0,0 +1,42 @@
+package contacts.models;
+
+import contacts.models.contactattributes.PhoneNumbers;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.io.Serializable;
+
+/**
+ * A contact's phone number in normalized form, kept beside the phone json column so the owner of
+ * a number can be found with an index lookup.  Maintained by ContactService.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(ContactPhone.Key.class)
+@Table(name = "contact_phone", indexes = {
+  @Index(name = "idx_contact_phone_number", columnList = "number"),
+  @Index(name = "idx_contact_phone_contact_id", columnList = "contact_id")
+})
+public class ContactPhone {
+
+  @Id
+  @Column(name = "contact_id")
+  private long contactId;
+
+  @Id
+  @Column(name = "number", length = PhoneNumbers.MAX_LENGTH)
+  private String number;
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Key implements Serializable {
+    private long contactId;
+    private String number;
+  }
+
+}
@@ -0,0 +1,40 @@
+package contacts.models;
+
+/**
+ * Filters for a contact search.  Every field is optional and matched case-insensitively; the
+ * ones given must all match.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public class ContactSearchCriteria {
+
+  public final String lastName;
+  public final String lastNamePrefix;
+  public final String city;
+  public final String state;
+  public final String zip;
+  public final String email;
+  public final String emailPrefix;
+
+  /**
+   * Constructor.
+   *
+   * @param lastName       exact last name
+   * @param lastNamePrefix start of the last name
+   * @param city           exact city
+   * @param state          exact state
+   * @param zip            exact zip
+   * @param email          exact email
+   * @param emailPrefix    start of the email
+   */
+  public ContactSearchCriteria(String lastName, String lastNamePrefix, String city, String state, String zip,
+                               String email, String emailPrefix) {
+    this.lastName = lastName;
+    this.lastNamePrefix = lastNamePrefix;
+    this.city = city;
+    this.state = state;
+    this.zip = zip;
+    this.email = email;
+    this.emailPrefix = emailPrefix;
+  }
+
+}
@@ -0,0 +1,23 @@
+package contacts.models;
+
+@SuppressWarnings({"WeakerAccess", "unused"})
+public class ContactSuggestion {
+
+  public final long id;
+  public final String name;
+  public final String email;
+
+  /**
+   * Constructor.
+   *
+   * @param id    id of the suggested contact
+   * @param name  the contact's first and last name
+   * @param email the contact's email
+   */
+  public ContactSuggestion(long id, String name, String email) {
+    this.id = id;
+    this.name = name;
+    this.email = email;
+  }
+
+}
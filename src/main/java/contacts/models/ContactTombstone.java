@@ -0,0 +1,37 @@
+package contacts.models;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * Record of a deleted contact, so mirrors reading the change feed learn of the delete.
+ * Written by ContactService alongside every delete.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@Table(name = "contact_tombstone", indexes = {
+  @Index(name = "idx_contact_tombstone_change_seq", columnList = "change_seq,contact_id")
+})
+public class ContactTombstone {
+
+  @Id
+  @Column(name = "contact_id")
+  private long contactId;
+
+  @Column(name = "deleted_at", nullable = false)
+  private Instant deletedAt;
+
+  // change sequence of the deleting transaction, stamped by ContactService just before it commits
+  @Column(name = "change_seq", insertable = false, updatable = false)
+  private Long changeSeq;
+
+  public ContactTombstone(long contactId, Instant deletedAt) {
+    this.contactId = contactId;
+    this.deletedAt = deletedAt;
+  }
+
+}
@@ -0,0 +1,27 @@
+package contacts.models;
+
+import java.util.List;
+
+@SuppressWarnings({"WeakerAccess", "unused"})
+public class ImportSummary {
+
+  public final long accepted;
+  public final long rejected;
+  public final List<BatchItemResult> rejections;
+
+  /**
+   * Constructor.
+   *
+   * @param accepted   how many lines were imported
+   * @param rejected   how many lines were not imported
+   * @param rejections why lines were rejected, indexed by line number, with status 400 for a line
+   *                   at fault and 5xx for one the server failed to write; capped, so it can be
+   *                   shorter than rejected
+   */
+  public ImportSummary(long accepted, long rejected, List<BatchItemResult> rejections) {
+    this.accepted = accepted;
+    this.rejected = rejected;
+    this.rejections = rejections;
+  }
+
+}
@@ -0,0 +1,39 @@
+package contacts.models.contactattributes;
+
+import javax.validation.Constraint;
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+import javax.validation.Payload;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The phone number, normalized by {@link PhoneNumbers#normalize}, fits the phone number index.
+ * A number without digits is not indexed, so is not checked.
+ */
+@Documented
+@Constraint(validatedBy = IndexablePhoneNumber.Validator.class)
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface IndexablePhoneNumber {
+
+  String message() default "must be at most " + PhoneNumbers.MAX_LENGTH + " characters once normalized";
+
+  Class<?>[] groups() default {};
+
+  Class<? extends Payload>[] payload() default {};
+
+  class Validator implements ConstraintValidator<IndexablePhoneNumber, String> {
+
+    @Override
+    public boolean isValid(String number, ConstraintValidatorContext context) {
+      String normalized = PhoneNumbers.normalize(number);
+      return normalized == null || normalized.length() <= PhoneNumbers.MAX_LENGTH;
+    }
+
+  }
+
+}
@@ -8,10 +8,11 @@ import javax.validation.constraints.NotNull;
 public class Phone {
 
   @NotNull
+  @IndexablePhoneNumber
   private String number;
   private PhoneType type;
 
-  enum PhoneType {
+  public enum PhoneType {
     home,
     work,
     mobile;
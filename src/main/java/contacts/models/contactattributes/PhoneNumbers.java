@@ -0,0 +1,45 @@
+package contacts.models.contactattributes;
+
+/**
+ * Normalizes phone numbers to an E.164 style "+" and digits form, so one number written several
+ * ways is stored and looked up the same.  Numbers without a country code are taken to be North
+ * American, like the rest of the contact data.
+ */
+public final class PhoneNumbers {
+
+  // the width of the contact_phone number column
+  public static final int MAX_LENGTH = 32;
+
+  private static final String DEFAULT_COUNTRY_CODE = "1";
+  private static final int NATIONAL_NUMBER_LENGTH = 10;
+
+  private PhoneNumbers() {
+  }
+
+  /**
+   * @param number a phone number as written, e.g. "(302) 611-9148" or "+1 302 611 9148"
+   * @return the normalized number, e.g. "+13026119148", or null if it has no digits
+   */
+  public static String normalize(String number) {
+    if(number == null) {
+      return null;
+    }
+
+    StringBuilder digits = new StringBuilder(number.length());
+    for (char c : number.toCharArray()) {
+      if(c >= '0' && c <= '9') {
+        digits.append(c);
+      }
+    }
+    if(digits.length() == 0) {
+      return null;
+    }
+
+    boolean international = number.trim().startsWith("+");
+    if(!international && digits.length() == NATIONAL_NUMBER_LENGTH) {
+      digits.insert(0, DEFAULT_COUNTRY_CODE);
+    }
+    return "+" + digits;
+  }
+
+}
@@ -1,7 +1,7 @@
 package contacts.models.converters;
 
-import com.google.gson.Gson;
 import contacts.models.contactattributes.Address;
+import io.micrometer.core.instrument.Timer;
 
 import javax.persistence.AttributeConverter;
 import javax.persistence.Converter;
@@ -9,6 +9,9 @@ import javax.persistence.Converter;
 @Converter
 public class AddressConverter implements AttributeConverter<Address, String> {
 
+  private static final Timer ENCODE = JsonColumnCodec.timer("address", "encode");
+  private static final Timer DECODE = JsonColumnCodec.timer("address", "decode");
+
   @Override
   public String convertToDatabaseColumn(Address address) {
     return toDatabaseColumn(address);
@@ -24,7 +27,7 @@ public class AddressConverter implements AttributeConverter<Address, String> {
       return null;
     }
 
-    return new Gson().toJson(address);
+    return ENCODE.record(() -> JsonColumnCodec.toJson(JsonColumnCodec.ADDRESS, address));
   }
 
   public static Address fromDatabaseColumn(String dbData) {
@@ -32,7 +35,7 @@ public class AddressConverter implements AttributeConverter<Address, String> {
       return null;
     }
 
-    return new Gson().fromJson(dbData, Address.class);
+    return DECODE.record(() -> JsonColumnCodec.fromJson(JsonColumnCodec.ADDRESS, dbData));
   }
 
 }
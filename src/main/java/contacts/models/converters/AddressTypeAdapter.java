@@ -0,0 +1,53 @@
+package contacts.models.converters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import contacts.models.contactattributes.Address;
+
+import java.io.IOException;
+
+/**
+ * Streaming Gson adapter for {@link Address}.  Writes the same JSON as Gson's reflective adapter.
+ */
+class AddressTypeAdapter extends TypeAdapter<Address> {
+
+  @Override
+  public void write(JsonWriter out, Address address) throws IOException {
+    out.beginObject();
+    JsonColumnCodec.writeField(out, "street", address.getStreet());
+    JsonColumnCodec.writeField(out, "city", address.getCity());
+    JsonColumnCodec.writeField(out, "state", address.getState());
+    JsonColumnCodec.writeField(out, "zip", address.getZip());
+    out.endObject();
+  }
+
+  @Override
+  public Address read(JsonReader in) throws IOException {
+    Address address = new Address();
+
+    in.beginObject();
+    while (in.hasNext()) {
+      switch (in.nextName()) {
+        case "street":
+          address.setStreet(JsonColumnCodec.readString(in));
+          break;
+        case "city":
+          address.setCity(JsonColumnCodec.readString(in));
+          break;
+        case "state":
+          address.setState(JsonColumnCodec.readString(in));
+          break;
+        case "zip":
+          address.setZip(JsonColumnCodec.readString(in));
+          break;
+        default:
+          in.skipValue();
+      }
+    }
+    in.endObject();
+
+    return address;
+  }
+
+}
@@ -0,0 +1,98 @@
+package contacts.models.converters;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import contacts.models.contactattributes.Address;
+import contacts.models.contactattributes.Name;
+import contacts.models.contactattributes.Phone;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+/**
+ * Shared JSON codec for the JSON columns of a contact.
+ *
+ * <p>Gson and its adapters are immutable and thread-safe, so one instance is built up front with
+ * hand-written streaming adapters and shared by every converter instead of building a new Gson
+ * (and warming up its reflective adapters) for every column of every row.
+ */
+public final class JsonColumnCodec {
+
+  private static final Gson GSON = new GsonBuilder()
+    .registerTypeAdapter(Name.class, new NameTypeAdapter().nullSafe())
+    .registerTypeAdapter(Address.class, new AddressTypeAdapter().nullSafe())
+    .registerTypeAdapter(Phone.class, new PhoneTypeAdapter().nullSafe())
+    .create();
+
+  public static final TypeAdapter<Name> NAME = GSON.getAdapter(Name.class);
+  public static final TypeAdapter<Address> ADDRESS = GSON.getAdapter(Address.class);
+  public static final TypeAdapter<List<Phone>> PHONES = GSON.getAdapter(new TypeToken<List<Phone>>(){});
+
+  private JsonColumnCodec() {
+  }
+
+  public static <T> String toJson(TypeAdapter<T> adapter, T value) {
+    StringWriter writer = new StringWriter();
+    JsonWriter jsonWriter = new JsonWriter(writer);
+    // escapes < > & = ' as Gson does by default, so stored columns keep their format
+    jsonWriter.setHtmlSafe(true);
+    try {
+      adapter.write(jsonWriter, value);
+    } catch (IOException e) {
+      throw new JsonSyntaxException(e);
+    }
+    return writer.toString();
+  }
+
+  /**
+   * Reads a value leniently, matching {@link Gson#fromJson(String, Class)}.
+   *
+   * @throws JsonSyntaxException if dbData is not valid JSON for the adapter's type
+   */
+  public static <T> T fromJson(TypeAdapter<T> adapter, String dbData) {
+    JsonReader reader = new JsonReader(new StringReader(dbData));
+    reader.setLenient(true);
+    try {
+      return adapter.read(reader);
+    } catch (IOException | IllegalStateException e) {
+      throw new JsonSyntaxException(e);
+    }
+  }
+
+  /**
+   * A converter's encode or decode timer in {@code contacts.converter}.  Converters are created
+   * by Hibernate rather than Spring, so the timer is registered globally, where Spring Boot
+   * publishes its registries.
+   */
+  static Timer timer(String converter, String operation) {
+    return Timer.builder("contacts.converter")
+      .tag("converter", converter)
+      .tag("operation", operation)
+      .register(Metrics.globalRegistry);
+  }
+
+  static void writeField(JsonWriter out, String name, String value) throws IOException {
+    if (value != null) {
+      out.name(name).value(value);
+    }
+  }
+
+  static String readString(JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+    return in.nextString();
+  }
+
+}
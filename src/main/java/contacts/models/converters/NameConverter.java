@@ -1,7 +1,7 @@
 package contacts.models.converters;
 
-import com.google.gson.Gson;
 import contacts.models.contactattributes.Name;
+import io.micrometer.core.instrument.Timer;
 
 import javax.persistence.AttributeConverter;
 import javax.persistence.Converter;
@@ -9,6 +9,9 @@ import javax.persistence.Converter;
 @Converter
 public class NameConverter implements AttributeConverter<Name, String> {
 
+  private static final Timer ENCODE = JsonColumnCodec.timer("name", "encode");
+  private static final Timer DECODE = JsonColumnCodec.timer("name", "decode");
+
   @Override
   public String convertToDatabaseColumn(Name name) {
     return toDatabaseColumn(name);
@@ -24,7 +27,7 @@ public class NameConverter implements AttributeConverter<Name, String> {
       return null;
     }
 
-    return new Gson().toJson(name);
+    return ENCODE.record(() -> JsonColumnCodec.toJson(JsonColumnCodec.NAME, name));
   }
 
   public static Name fromDatabaseColumn(String dbData) {
@@ -32,7 +35,7 @@ public class NameConverter implements AttributeConverter<Name, String> {
       return null;
     }
 
-    return new Gson().fromJson(dbData, Name.class);
+    return DECODE.record(() -> JsonColumnCodec.fromJson(JsonColumnCodec.NAME, dbData));
   }
 
 }
@@ -0,0 +1,51 @@
+package contacts.models.converters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import contacts.models.contactattributes.Name;
+
+import java.io.IOException;
+
+/**
+ * Streaming Gson adapter for {@link Name}.  Writes the same JSON as Gson's reflective adapter.
+ */
+class NameTypeAdapter extends TypeAdapter<Name> {
+
+  @Override
+  public void write(JsonWriter out, Name name) throws IOException {
+    out.beginObject();
+    JsonColumnCodec.writeField(out, "first", name.getFirst());
+    JsonColumnCodec.writeField(out, "middle", name.getMiddle());
+    JsonColumnCodec.writeField(out, "last", name.getLast());
+    out.endObject();
+  }
+
+  @Override
+  public Name read(JsonReader in) throws IOException {
+    String first = null;
+    String middle = null;
+    String last = null;
+
+    in.beginObject();
+    while (in.hasNext()) {
+      switch (in.nextName()) {
+        case "first":
+          first = JsonColumnCodec.readString(in);
+          break;
+        case "middle":
+          middle = JsonColumnCodec.readString(in);
+          break;
+        case "last":
+          last = JsonColumnCodec.readString(in);
+          break;
+        default:
+          in.skipValue();
+      }
+    }
+    in.endObject();
+
+    return new Name(first, middle, last);
+  }
+
+}
@@ -1,10 +1,9 @@
 package contacts.models.converters;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
-import com.google.gson.reflect.TypeToken;
 import contacts.exceptions.ContactsRuntimeException;
 import contacts.models.contactattributes.Phone;
+import io.micrometer.core.instrument.Timer;
 
 import javax.persistence.AttributeConverter;
 import javax.persistence.Converter;
@@ -13,6 +12,9 @@ import java.util.List;
 @Converter
 public class PhoneArrayConverter implements AttributeConverter<List<Phone>, String> {
 
+  private static final Timer ENCODE = JsonColumnCodec.timer("phone", "encode");
+  private static final Timer DECODE = JsonColumnCodec.timer("phone", "decode");
+
   @Override
   public List<Phone> convertToEntityAttribute(String dbData) {
     return toJsonArray(dbData);
@@ -29,7 +31,7 @@ public class PhoneArrayConverter implements AttributeConverter<List<Phone>, Stri
     }
 
     try {
-      return new Gson().fromJson(dbData, new TypeToken<List<Phone>>(){}.getType());
+      return DECODE.record(() -> JsonColumnCodec.fromJson(JsonColumnCodec.PHONES, dbData));
     } catch (JsonSyntaxException e) {
       throw new ContactsRuntimeException(String.format("Failed to write database column '%s' to JsonArray due to %s", dbData, e.getMessage()));
     }
@@ -39,7 +41,7 @@ public class PhoneArrayConverter implements AttributeConverter<List<Phone>, Stri
     if (phones == null) {
       return null;
     }
-    return new Gson().toJson(phones);
+    return ENCODE.record(() -> JsonColumnCodec.toJson(JsonColumnCodec.PHONES, phones));
 
   }
 }
@@ -0,0 +1,60 @@
+package contacts.models.converters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import contacts.models.contactattributes.Phone;
+
+import java.io.IOException;
+
+/**
+ * Streaming Gson adapter for {@link Phone}.  Writes the same JSON as Gson's reflective adapter;
+ * unknown phone types read back as null, as they do with Gson's enum adapter.
+ */
+class PhoneTypeAdapter extends TypeAdapter<Phone> {
+
+  @Override
+  public void write(JsonWriter out, Phone phone) throws IOException {
+    out.beginObject();
+    JsonColumnCodec.writeField(out, "number", phone.getNumber());
+    if (phone.getType() != null) {
+      JsonColumnCodec.writeField(out, "type", phone.getType().name());
+    }
+    out.endObject();
+  }
+
+  @Override
+  public Phone read(JsonReader in) throws IOException {
+    Phone phone = new Phone();
+
+    in.beginObject();
+    while (in.hasNext()) {
+      switch (in.nextName()) {
+        case "number":
+          phone.setNumber(JsonColumnCodec.readString(in));
+          break;
+        case "type":
+          phone.setType(toPhoneType(JsonColumnCodec.readString(in)));
+          break;
+        default:
+          in.skipValue();
+      }
+    }
+    in.endObject();
+
+    return phone;
+  }
+
+  private static Phone.PhoneType toPhoneType(String type) {
+    if (type == null) {
+      return null;
+    }
+
+    try {
+      return Phone.PhoneType.valueOf(type);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+}
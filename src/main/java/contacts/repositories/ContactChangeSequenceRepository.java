@@ -0,0 +1,39 @@
+package contacts.repositories;
+
+import contacts.models.ContactChangeSequence;
+import contacts.models.ContactListVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface ContactChangeSequenceRepository extends JpaRepository<ContactChangeSequence, Integer> {
+
+  /**
+   * Advances the sequence, after flushing the transaction's other writes.  The row stays locked
+   * until the transaction ends, so the transactions advancing it commit in the order of their
+   * numbers.
+   *
+   * @return 1, or 0 if the row has not been created
+   */
+  @Modifying(flushAutomatically = true)
+  @Transactional
+  @Query("update ContactChangeSequence s set s.seq = s.seq + 1, s.changedAt = current_timestamp "
+    + "where s.id = " + ContactChangeSequence.ID)
+  int advance();
+
+  @Query("select s.seq from ContactChangeSequence s where s.id = " + ContactChangeSequence.ID)
+  long findSeq();
+
+  /**
+   * @return the contact list's version, a primary key lookup; empty before the first write
+   */
+  @Query("select new contacts.models.ContactListVersion(s.seq, s.changedAt) from ContactChangeSequence s "
+    + "where s.id = " + ContactChangeSequence.ID)
+  Optional<ContactListVersion> findListVersion();
+
+}
@@ -0,0 +1,26 @@
+package contacts.repositories;
+
+import contacts.models.ContactPhone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+@Repository
+public interface ContactPhoneRepository extends JpaRepository<ContactPhone, ContactPhone.Key> {
+
+  /**
+   * Deletes the phone numbers of the given contacts in a single statement.
+   *
+   * @return the number of rows deleted
+   */
+  @Modifying
+  @Transactional
+  @Query("delete from ContactPhone p where p.contactId in :contactIds")
+  int deleteByContactIdIn(@Param("contactIds") Collection<Long> contactIds);
+
+}
@@ -1,12 +1,148 @@
 package contacts.repositories;
 
 import contacts.models.Contact;
+import contacts.models.converters.AddressConverter;
+import contacts.models.converters.NameConverter;
+import contacts.models.converters.PhoneArrayConverter;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
-public interface ContactRepository extends JpaRepository<Contact, Long> {
+public interface ContactRepository extends JpaRepository<Contact, Long>, JpaSpecificationExecutor<Contact> {
+
+  String STREAM_FETCH_SIZE = "500";
+  long ANY_VERSION = -1;
 
   Contact removeById(long id);
 
-}
\ No newline at end of file
+  /**
+   * Keyset page of contacts: the next {@code pageable.getPageSize()} contacts whose id is greater
+   * than the given cursor, in id order.  Only the page size of the pageable is used.
+   */
+  List<Contact> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+  /**
+   * Streams every contact in id order.  Must be consumed inside a transaction and closed.
+   */
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+  Stream<Contact> streamAllByOrderByIdAsc();
+
+  /**
+   * Keyset page of contacts in (change seq, id) order, after the given position and no later than
+   * the given change seq; a range scan of the change_seq index.  Only the page size of the pageable
+   * is used.
+   */
+  @Query("select c from Contact c "
+    + "where (c.changeSeq > :seq or (c.changeSeq = :seq and c.id > :id)) and c.changeSeq <= :until "
+    + "order by c.changeSeq, c.id")
+  List<Contact> findChangedAfter(@Param("seq") long seq, @Param("id") long id,
+                                 @Param("until") long until, Pageable pageable);
+
+  /**
+   * Stamps the contacts with the change seq of the transaction writing them.
+   */
+  @Modifying
+  @Transactional
+  @Query("update Contact c set c.changeSeq = :seq where c.id in :ids")
+  int setChangeSeq(@Param("ids") Collection<Long> ids, @Param("seq") long seq);
+
+  /**
+   * Overwrites the contact with the given id in a single statement, whatever its version.
+   *
+   * @return the number of rows updated, 0 if there is no contact with that id
+   */
+  default int updateById(long id, Contact contact) {
+    return updateById(id, contact, ANY_VERSION);
+  }
+
+  /**
+   * Overwrites the contact with the given id in a single statement, bumping its version.
+   *
+   * @param expectedVersion only update if the contact is at this version, or {@link #ANY_VERSION}
+   * @return the number of rows updated, 0 if there is no contact with that id and version
+   */
+  default int updateById(long id, Contact contact, long expectedVersion) {
+    contact.updateSearchColumns();
+    contact.setUpdatedAt(Contact.writeTime());
+    return updateColumns(id, expectedVersion, contact.getUpdatedAt(),
+      NameConverter.toDatabaseColumn(contact.getName()),
+      AddressConverter.toDatabaseColumn(contact.getAddress()),
+      PhoneArrayConverter.toDatabaseColumn(contact.getPhone()),
+      contact.getEmail(),
+      contact.getSearchLastName(),
+      contact.getSearchCity(),
+      contact.getSearchState(),
+      contact.getSearchZip(),
+      contact.getSearchEmail());
+  }
+
+  /**
+   * Deletes the contact with the given id in a single statement.
+   *
+   * @return the number of rows deleted, 0 if there is no contact with that id
+   */
+  @Modifying
+  @Transactional
+  @Query("delete from Contact c where c.id = :id")
+  int deleteContactById(@Param("id") long id);
+
+  /**
+   * Contacts owning the phone number, found through the contact_phone index.
+   *
+   * @param number the number, normalized with {@code PhoneNumbers.normalize}
+   * @return the owners in id order
+   */
+  @Query("select c from Contact c where c.id in "
+    + "(select p.contactId from ContactPhone p where p.number = :number) order by c.id")
+  List<Contact> findByPhoneNumber(@Param("number") String number);
+
+  @Query("select c.version from Contact c where c.id = :id")
+  Optional<Long> findVersionById(@Param("id") long id);
+
+  /**
+   * @return which of the given ids belong to a contact
+   */
+  @Query("select c.id from Contact c where c.id in :ids")
+  List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+  /**
+   * Deletes the contacts with the given ids in a single statement.
+   *
+   * @return the number of rows deleted
+   */
+  @Modifying
+  @Transactional
+  @Query("delete from Contact c where c.id in :ids")
+  int deleteContactsByIdIn(@Param("ids") Collection<Long> ids);
+
+  @Modifying
+  @Transactional
+  @Query(value = "update contact set name = :name, address = :address, phone = :phone, email = :email, "
+    + "search_last_name = :searchLastName, search_city = :searchCity, search_state = :searchState, "
+    + "search_zip = :searchZip, search_email = :searchEmail, version = version + 1, updated_at = :updatedAt "
+    + "where id = :id and (:expectedVersion < 0 or version = :expectedVersion)",
+    nativeQuery = true)
+  int updateColumns(@Param("id") long id, @Param("expectedVersion") long expectedVersion,
+                    @Param("updatedAt") Instant updatedAt, @Param("name") String name, @Param("address") String address,
+                    @Param("phone") String phone, @Param("email") String email,
+                    @Param("searchLastName") String searchLastName, @Param("searchCity") String searchCity,
+                    @Param("searchState") String searchState, @Param("searchZip") String searchZip,
+                    @Param("searchEmail") String searchEmail);
+
+}
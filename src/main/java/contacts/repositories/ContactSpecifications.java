@@ -0,0 +1,50 @@
+package contacts.repositories;
+
+import contacts.models.Contact;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Search predicates over the indexed search columns of {@link Contact}.  Values are normalized
+ * with {@link Contact#searchKey(String)}, so matching is case-insensitive.
+ */
+public final class ContactSpecifications {
+
+  private static final char LIKE_ESCAPE = '\\';
+
+  private ContactSpecifications() {
+  }
+
+  /**
+   * @param attribute a search column attribute, e.g. "searchCity"
+   * @param value     the value to match
+   * @return contacts whose column equals the value
+   */
+  public static Specification<Contact> searchKeyEquals(String attribute, String value) {
+    String key = Contact.searchKey(value);
+    return (root, query, cb) -> cb.equal(root.get(attribute), key);
+  }
+
+  /**
+   * A prefix match, which an index on the column can answer with a range scan.
+   *
+   * @param attribute a search column attribute, e.g. "searchLastName"
+   * @param prefix    the prefix to match
+   * @return contacts whose column starts with the prefix
+   */
+  public static Specification<Contact> searchKeyStartsWith(String attribute, String prefix) {
+    String pattern = escapeLike(Contact.searchKey(prefix)) + "%";
+    return (root, query, cb) -> cb.like(root.get(attribute), pattern, LIKE_ESCAPE);
+  }
+
+  private static String escapeLike(String value) {
+    StringBuilder escaped = new StringBuilder(value.length());
+    for (char c : value.toCharArray()) {
+      if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+        escaped.append(LIKE_ESCAPE);
+      }
+      escaped.append(c);
+    }
+    return escaped.toString();
+  }
+
+}
@@ -0,0 +1,36 @@
+package contacts.repositories;
+
+import contacts.models.ContactTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ContactTombstoneRepository extends JpaRepository<ContactTombstone, Long> {
+
+  /**
+   * Keyset page of tombstones in (change seq, contact id) order, after the given position and no
+   * later than the given change seq.  Only the page size of the pageable is used.
+   */
+  @Query("select t from ContactTombstone t "
+    + "where (t.changeSeq > :seq or (t.changeSeq = :seq and t.contactId > :id)) and t.changeSeq <= :until "
+    + "order by t.changeSeq, t.contactId")
+  List<ContactTombstone> findDeletedAfter(@Param("seq") long seq, @Param("id") long id,
+                                          @Param("until") long until, Pageable pageable);
+
+  /**
+   * Stamps the tombstones with the change seq of the transaction writing them.
+   */
+  @Modifying
+  @Transactional
+  @Query("update ContactTombstone t set t.changeSeq = :seq where t.contactId in :ids")
+  int setChangeSeq(@Param("ids") Collection<Long> ids, @Param("seq") long seq);
+
+}
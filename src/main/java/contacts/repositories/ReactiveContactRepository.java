@@ -0,0 +1,68 @@
+package contacts.repositories;
+
+import contacts.models.Contact;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.List;
+
+/**
+ * Reads of contacts off the subscriber's thread: each query runs through {@link ContactRepository},
+ * so the same entity and JSON column converters, blocking a thread of the JDBC scheduler instead.
+ */
+@Repository
+public class ReactiveContactRepository {
+
+  public static final String JDBC_SCHEDULER = "jdbcScheduler";
+
+  private final ContactRepository contactRepo;
+  private final Scheduler jdbcScheduler;
+  private final int pageSize;
+
+  @Autowired
+  public ReactiveContactRepository(ContactRepository contactRepo, @Qualifier(JDBC_SCHEDULER) Scheduler jdbcScheduler) {
+    this(contactRepo, jdbcScheduler, Integer.parseInt(ContactRepository.STREAM_FETCH_SIZE));
+  }
+
+  ReactiveContactRepository(ContactRepository contactRepo, Scheduler jdbcScheduler, int pageSize) {
+    this.contactRepo = contactRepo;
+    this.jdbcScheduler = jdbcScheduler;
+    this.pageSize = pageSize;
+  }
+
+  /**
+   * @return the contact, or empty if there is none with that id
+   */
+  public Mono<Contact> findById(long id) {
+    return Mono.fromCallable(() -> contactRepo.findById(id).orElse(null))
+      .subscribeOn(jdbcScheduler);
+  }
+
+  /**
+   * Every contact after the given id, in id order.  Read a keyset page at a time, and the next
+   * page only once the subscriber has asked for the contacts of the last, so a slow subscriber
+   * holds at most two pages and no connection between them.
+   */
+  public Flux<Contact> findAllAfter(long after) {
+    Flux<List<Contact>> pages = Flux.generate(() -> after, (cursor, sink) -> {
+      List<Contact> page = contactRepo.findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, pageSize));
+      if(!page.isEmpty()) {
+        sink.next(page);
+      }
+      if(page.size() < pageSize) {
+        sink.complete();
+        return cursor;
+      }
+      return page.get(page.size() - 1).getId();
+    });
+    return pages
+      .subscribeOn(jdbcScheduler)
+      .flatMapIterable(page -> page, 1);
+  }
+
+}
@@ -0,0 +1,157 @@
+package contacts.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import contacts.exceptions.ErrorInfo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Applies each authenticated client's {@link ClientThrottle}, answering 429 with a Retry-After
+ * header when the client is over its rate or has too many requests in progress.  Must run after
+ * the client has been authenticated; unauthenticated requests are passed on to be rejected by
+ * the security chain.  An async request holds its concurrency permit until it completes, not just
+ * until its first dispatch returns.
+ *
+ * <p>Rejections are counted in {@code contacts.throttled}, tagged by client and by reason
+ * ({@code rate} or {@code concurrency}).
+ */
+public class ClientRateLimitFilter extends OncePerRequestFilter {
+
+  private static final String TOO_MANY_REQUESTS = "Too many requests";
+
+  private final Function<String, ClientThrottle> throttleFactory;
+  private final ConcurrentMap<String, ClientThrottle> throttles = new ConcurrentHashMap<>();
+  private final MeterRegistry meterRegistry;
+  private final ObjectMapper objectMapper;
+
+  /**
+   * Constructor.
+   *
+   * @param throttleFactory creates the throttle for a client name, once per client
+   * @param meterRegistry   where to count rejections
+   * @param objectMapper    writes the error body
+   */
+  public ClientRateLimitFilter(Function<String, ClientThrottle> throttleFactory, MeterRegistry meterRegistry, ObjectMapper objectMapper) {
+    this.throttleFactory = throttleFactory;
+    this.meterRegistry = meterRegistry;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+    throws ServletException, IOException {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if(authentication == null || !authentication.isAuthenticated()) {
+      chain.doFilter(request, response);
+      return;
+    }
+
+    String client = authentication.getName();
+    ClientThrottle throttle = throttles.computeIfAbsent(client, throttleFactory);
+
+    long waitNanos = throttle.tryAcquireRate(System.nanoTime());
+    if(waitNanos > 0) {
+      reject(request, response, client, "rate", TimeUnit.NANOSECONDS.toSeconds(waitNanos - 1) + 1);
+      return;
+    }
+
+    if(!throttle.tryAcquireConcurrency()) {
+      reject(request, response, client, "concurrency", 1);
+      return;
+    }
+    boolean asyncStarted = false;
+    try {
+      chain.doFilter(request, response);
+      // a streaming body, Callable, Mono or Flux is still in progress when the chain returns
+      asyncStarted = request.isAsyncStarted();
+      if(asyncStarted) {
+        request.getAsyncContext().addListener(new ConcurrencyRelease(throttle));
+      }
+    } finally {
+      if(!asyncStarted) {
+        throttle.releaseConcurrency();
+      }
+    }
+  }
+
+  private void reject(HttpServletRequest request, HttpServletResponse response, String client, String reason, long retryAfterSeconds)
+    throws IOException {
+    throttledCounter(client, reason).increment();
+
+    response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+    response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+    response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+    objectMapper.writeValue(response.getOutputStream(), new ErrorInfo(
+      HttpStatus.TOO_MANY_REQUESTS.value(), TOO_MANY_REQUESTS, request.getRequestURI(), request.getParameterMap()));
+  }
+
+  /**
+   * Releases an async request's concurrency permit once the request ends, however it ends.
+   */
+  private static final class ConcurrencyRelease implements AsyncListener {
+
+    private final ClientThrottle throttle;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    ConcurrencyRelease(ClientThrottle throttle) {
+      this.throttle = throttle;
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+      release();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+      release();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+      release();
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+      // listeners are dropped when async processing restarts, so stay registered
+      event.getAsyncContext().addListener(this);
+    }
+
+    // onComplete also follows a timeout or error, so only the first call releases
+    private void release() {
+      if(released.compareAndSet(false, true)) {
+        throttle.releaseConcurrency();
+      }
+    }
+
+  }
+
+  private Counter throttledCounter(String client, String reason) {
+    return Counter.builder("contacts.throttled")
+      .description("Requests rejected by the per-client rate limit or concurrency cap")
+      .tag("client", client)
+      .tag("reason", reason)
+      .register(meterRegistry);
+  }
+
+}
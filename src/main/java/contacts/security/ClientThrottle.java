@@ -0,0 +1,72 @@
+package contacts.security;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rate and concurrency limits for one client.
+ *
+ * <p>The rate limit is a token bucket kept as a single theoretical arrival time (the generic cell
+ * rate algorithm), so admitting a request is one compare-and-set and never takes a lock.  The
+ * concurrency cap is a non-blocking {@link Semaphore}.
+ */
+public class ClientThrottle {
+
+  private final long emissionIntervalNanos;
+  private final long burstToleranceNanos;
+  private final AtomicLong theoreticalArrivalNanos;
+  private final Semaphore inFlight;
+
+  /**
+   * Constructor.
+   *
+   * @param requestsPerSecond sustained rate the bucket refills at
+   * @param burst             bucket capacity: requests that may arrive at once
+   * @param maxConcurrent     requests that may be in progress at once
+   * @param nowNanos          current {@link System#nanoTime()}
+   */
+  public ClientThrottle(double requestsPerSecond, int burst, int maxConcurrent, long nowNanos) {
+    if(requestsPerSecond <= 0 || burst < 1 || maxConcurrent < 1) {
+      throw new IllegalArgumentException(String.format(
+        "Invalid limits: %s requests per second, burst %d, %d concurrent", requestsPerSecond, burst, maxConcurrent));
+    }
+    this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+    this.burstToleranceNanos = emissionIntervalNanos * (burst - 1);
+    this.theoreticalArrivalNanos = new AtomicLong(nowNanos);
+    this.inFlight = new Semaphore(maxConcurrent);
+  }
+
+  /**
+   * Take a token from the bucket if there is one.
+   *
+   * @param nowNanos current {@link System#nanoTime()}
+   * @return 0 if the request is admitted, otherwise how long until it would be, in nanoseconds
+   */
+  public long tryAcquireRate(long nowNanos) {
+    while (true) {
+      long arrival = theoreticalArrivalNanos.get();
+      long start = arrival - nowNanos > 0 ? arrival : nowNanos;
+      long wait = start - nowNanos - burstToleranceNanos;
+      if(wait > 0) {
+        return wait;
+      }
+      if(theoreticalArrivalNanos.compareAndSet(arrival, start + emissionIntervalNanos)) {
+        return 0;
+      }
+    }
+  }
+
+  /**
+   * @return whether a concurrent request slot was taken; if so it must be given back with
+   * {@link #releaseConcurrency()}
+   */
+  public boolean tryAcquireConcurrency() {
+    return inFlight.tryAcquire();
+  }
+
+  public void releaseConcurrency() {
+    inFlight.release();
+  }
+
+}
@@ -0,0 +1,66 @@
+package contacts.security;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Authenticates the service token found by {@link ApiKeyAuthFilter}.  The resolved client name
+ * becomes the principal of the returned {@link Authentication}, so {@code getName()} identifies
+ * the caller downstream.
+ *
+ * <p>Verified tokens are remembered, by digest, for a short time so the hot path skips the secret
+ * lookup.  A token revoked in the secret is therefore honoured for up to that time.
+ */
+public class ServiceTokenAuthenticationManager implements AuthenticationManager {
+
+  private final Function<String, String> verifier;
+  private final Cache<HashCode, String> clientsByTokenDigest;
+
+  /**
+   * Constructor.
+   *
+   * @param verifier                resolves a service token to its client name, throwing
+   *                                {@link BadCredentialsException} if it is not permitted
+   * @param maximumSize             most verified tokens to remember
+   * @param expireAfterWriteSeconds how long a verified token is remembered
+   */
+  public ServiceTokenAuthenticationManager(Function<String, String> verifier, long maximumSize, long expireAfterWriteSeconds) {
+    this.verifier = verifier;
+    this.clientsByTokenDigest = CacheBuilder.newBuilder()
+      .maximumSize(maximumSize)
+      .expireAfterWrite(expireAfterWriteSeconds, TimeUnit.SECONDS)
+      .build();
+  }
+
+  @Override
+  public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+    String serviceToken = (String) authentication.getPrincipal();
+    if(serviceToken == null || serviceToken.isEmpty()) {
+      throw new BadCredentialsException("No value given for 'Authorization' header");
+    }
+
+    HashCode tokenDigest = ServiceTokenIndex.digest(serviceToken);
+    String clientName = clientsByTokenDigest.getIfPresent(tokenDigest);
+    if(clientName == null) {
+      //will throw if this token is not found in the permitted tokens
+      clientName = verifier.apply(serviceToken);
+      clientsByTokenDigest.put(tokenDigest, clientName);
+    }
+
+    PreAuthenticatedAuthenticationToken result =
+      new PreAuthenticatedAuthenticationToken(clientName, authentication.getCredentials(), Collections.emptyList());
+    result.setDetails(authentication.getDetails());
+    return result;
+  }
+
+}
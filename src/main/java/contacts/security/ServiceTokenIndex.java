@@ -0,0 +1,60 @@
+package contacts.security;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable lookup from service token to client name, compiled from the authorizations secret
+ * (client name to token).  Tokens are keyed by their SHA-256 digest, so a lookup costs one hash
+ * and one map probe however many clients there are.  The digest is also what guards against
+ * timing attacks: the map compares digests, never tokens, and a caller cannot choose a token
+ * whose digest shares a prefix with a stored one, so how long a miss takes tells it nothing.
+ */
+public final class ServiceTokenIndex {
+
+  private final Map<HashCode, String> clientsByTokenDigest;
+
+  private ServiceTokenIndex(Map<HashCode, String> clientsByTokenDigest) {
+    this.clientsByTokenDigest = clientsByTokenDigest;
+  }
+
+  /**
+   * Compiles the index.
+   *
+   * @param authorizations the authorizations secret: client name to service token
+   * @return the index
+   */
+  public static ServiceTokenIndex compile(JsonObject authorizations) {
+    // a token shared by two clients resolves to the first, as the old linear scan did
+    Map<HashCode, String> index = new LinkedHashMap<>();
+    for (Map.Entry<String, JsonElement> authorization : authorizations.entrySet()) {
+      index.putIfAbsent(digest(authorization.getValue().getAsString()), authorization.getKey());
+    }
+    return new ServiceTokenIndex(ImmutableMap.copyOf(index));
+  }
+
+  /**
+   * @param serviceToken the token presented by a caller
+   * @return the name of the client the token belongs to, if any
+   */
+  public Optional<String> clientFor(String serviceToken) {
+    return Optional.ofNullable(clientsByTokenDigest.get(digest(serviceToken)));
+  }
+
+  public int size() {
+    return clientsByTokenDigest.size();
+  }
+
+  static HashCode digest(String serviceToken) {
+    return Hashing.sha256().hashString(serviceToken, StandardCharsets.UTF_8);
+  }
+
+}
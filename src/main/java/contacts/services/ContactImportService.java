@@ -0,0 +1,203 @@
+package contacts.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import contacts.models.BatchItemResult;
+import contacts.models.Contact;
+import contacts.models.ImportSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Imports newline delimited JSON contacts.  Lines are read, validated and written in batches one
+ * at a time, and the next line is not read until the current batch is written, so memory use
+ * does not depend on the size of the upload.  Lines longer than the maximum are rejected unread.
+ */
+@Service
+public class ContactImportService {
+
+  static final int MAX_REPORTED_REJECTIONS = 1000;
+
+  private final ContactService contactService;
+  private final ObjectReader contactReader;
+  private final Validator validator;
+  private final int batchSize;
+  private final int maxLineLength;
+
+  @Autowired
+  public ContactImportService(ContactService contactService,
+                              ObjectMapper objectMapper,
+                              Validator validator,
+                              @Value("${contacts.batch.chunk-size:500}") int batchSize,
+                              @Value("${contacts.import.max-line-length:65536}") int maxLineLength) {
+    this.contactService = contactService;
+    this.contactReader = objectMapper.readerFor(Contact.class);
+    this.validator = validator;
+    this.batchSize = batchSize;
+    this.maxLineLength = maxLineLength;
+  }
+
+  public ImportSummary importContacts(InputStream ndjson) throws IOException {
+    Tally tally = new Tally();
+    List<Contact> batch = new ArrayList<>(batchSize);
+    List<Integer> batchLines = new ArrayList<>(batchSize);
+
+    BoundedLineReader reader = new BoundedLineReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8), maxLineLength);
+    int lineNumber = 0;
+    String line;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      if (reader.wasTooLong()) {
+        tally.reject(lineNumber, null, HttpStatus.BAD_REQUEST.value(),
+          String.format("Line is longer than %d characters", maxLineLength));
+        continue;
+      }
+      if (line.trim().isEmpty()) {
+        continue;
+      }
+
+      Contact contact;
+      try {
+        contact = contactReader.readValue(line);
+      } catch (JsonProcessingException ex) {
+        tally.reject(lineNumber, null, HttpStatus.BAD_REQUEST.value(), ex.getOriginalMessage());
+        continue;
+      }
+
+      Set<ConstraintViolation<Contact>> violations = validator.validate(contact);
+      if (!violations.isEmpty()) {
+        tally.reject(lineNumber, contact.getId(), HttpStatus.BAD_REQUEST.value(), ContactService.describe(violations));
+        continue;
+      }
+
+      batch.add(contact);
+      batchLines.add(lineNumber);
+      if (batch.size() == batchSize) {
+        writeBatch(batch, batchLines, tally);
+      }
+    }
+    writeBatch(batch, batchLines, tally);
+
+    return new ImportSummary(tally.accepted, tally.rejected, tally.rejections);
+  }
+
+  private void writeBatch(List<Contact> batch, List<Integer> batchLines, Tally tally) {
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    for (BatchItemResult result : contactService.createContacts(batch)) {
+      if (result.status == HttpStatus.OK.value()) {
+        tally.accepted++;
+      } else {
+        // 400 for a contact at fault, 5xx when the write failed on our side
+        tally.reject(batchLines.get(result.index), result.id, result.status, result.message);
+      }
+    }
+
+    batch.clear();
+    batchLines.clear();
+  }
+
+  private static class Tally {
+
+    long accepted;
+    long rejected;
+    final List<BatchItemResult> rejections = new ArrayList<>();
+
+    void reject(int lineNumber, Long id, int status, String message) {
+      rejected++;
+      if (rejections.size() < MAX_REPORTED_REJECTIONS) {
+        rejections.add(new BatchItemResult(lineNumber, id, status, message));
+      }
+    }
+
+  }
+
+  /**
+   * Reads lines, keeping at most a maximum number of characters of each.  The rest of a longer
+   * line is skipped rather than held in memory, and {@link #wasTooLong()} reports it.
+   */
+  static final class BoundedLineReader {
+
+    private final Reader reader;
+    private final int maxLength;
+    private final char[] buffer = new char[8192];
+    private final StringBuilder line = new StringBuilder();
+    private int position;
+    private int limit;
+    private boolean tooLong;
+
+    BoundedLineReader(Reader reader, int maxLength) {
+      this.reader = reader;
+      this.maxLength = maxLength;
+    }
+
+    /**
+     * @return the next line without its terminator, cut short if it was too long, or null at the
+     * end of the input
+     */
+    String readLine() throws IOException {
+      line.setLength(0);
+      tooLong = false;
+      boolean started = false;
+      while (true) {
+        if (position == limit) {
+          limit = Math.max(reader.read(buffer, 0, buffer.length), 0);
+          position = 0;
+          if (limit == 0) {
+            return started ? finishLine() : null;
+          }
+        }
+        started = true;
+        int start = position;
+        while (position < limit && buffer[position] != '\n') {
+          position++;
+        }
+        append(start, position);
+        if (position < limit) {
+          position++;
+          return finishLine();
+        }
+      }
+    }
+
+    boolean wasTooLong() {
+      return tooLong;
+    }
+
+    // keeps one character over the maximum, which may turn out to be the \r of a \r\n
+    private void append(int start, int end) {
+      int room = maxLength + 1 - line.length();
+      if (end - start > room) {
+        tooLong = true;
+        end = start + room;
+      }
+      line.append(buffer, start, end - start);
+    }
+
+    private String finishLine() {
+      if (line.length() > 0 && line.charAt(line.length() - 1) == '\r') {
+        line.setLength(line.length() - 1);
+      }
+      tooLong |= line.length() > maxLength;
+      return line.toString();
+    }
+
+  }
+
+}
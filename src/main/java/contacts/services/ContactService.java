@@ -1,58 +1,713 @@
 package contacts.services;
 
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import contacts.exceptions.ContactAlreadyExistsException;
 import contacts.exceptions.ContactNotFoundException;
+import contacts.exceptions.ContactVersionConflictException;
+import contacts.exceptions.InvalidRequestException;
+import contacts.models.BatchItemResult;
 import contacts.models.Contact;
+import contacts.models.ContactChange;
+import contacts.models.ContactChangeSequence;
+import contacts.models.ContactChanges;
+import contacts.models.ContactListVersion;
+import contacts.models.ContactPhone;
+import contacts.models.ContactSearchCriteria;
+import contacts.models.ContactSuggestion;
+import contacts.models.ContactTombstone;
+import contacts.models.contactattributes.Phone;
+import contacts.models.contactattributes.PhoneNumbers;
+import contacts.repositories.ContactChangeSequenceRepository;
+import contacts.repositories.ContactPhoneRepository;
 import contacts.repositories.ContactRepository;
+import contacts.repositories.ContactTombstoneRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validator;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static contacts.repositories.ContactSpecifications.searchKeyEquals;
+import static contacts.repositories.ContactSpecifications.searchKeyStartsWith;
 
 @Service
 public class ContactService {
 
+  public static final int MAX_PAGE_SIZE = 1000;
+  public static final int MAX_SUGGESTIONS = 50;
+  public static final long ANY_VERSION = ContactRepository.ANY_VERSION;
+
+  // sortable search fields, as named by clients, to the entity attribute behind each
+  private static final Map<String, String> SORT_ATTRIBUTES = sortAttributes();
+
   private final ContactRepository contactRepo;
+  private final ContactPhoneRepository contactPhoneRepo;
+  private final ContactTombstoneRepository contactTombstoneRepo;
+  private final ContactChangeSequenceRepository changeSequenceRepo;
+  private final TransactionTemplate transactionTemplate;
+  private final int batchChunkSize;
+  private final ContactSuggestIndex suggestIndex;
+  private final Validator validator;
+
+  // read-through cache for getContact, kept current by every write in this service once it commits
+  private final Cache<Long, Contact> contactCache;
+
+  @PersistenceContext
+  private EntityManager entityManager;
 
   @Autowired
-  public ContactService(ContactRepository contactRepo) {
+  public ContactService(ContactRepository contactRepo,
+                        ContactPhoneRepository contactPhoneRepo,
+                        ContactTombstoneRepository contactTombstoneRepo,
+                        ContactChangeSequenceRepository changeSequenceRepo,
+                        ContactSuggestIndex suggestIndex,
+                        PlatformTransactionManager transactionManager,
+                        Validator validator,
+                        MeterRegistry meterRegistry,
+                        @Value("${contacts.cache.maximum-size:10000}") long cacheMaximumSize,
+                        @Value("${contacts.cache.expire-after-write-seconds:300}") long cacheExpireAfterWriteSeconds,
+                        @Value("${contacts.batch.chunk-size:500}") int batchChunkSize) {
     this.contactRepo = contactRepo;
+    this.contactPhoneRepo = contactPhoneRepo;
+    this.contactTombstoneRepo = contactTombstoneRepo;
+    this.changeSequenceRepo = changeSequenceRepo;
+    this.suggestIndex = suggestIndex;
+    this.validator = validator;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.batchChunkSize = batchChunkSize;
+    this.contactCache = CacheBuilder.newBuilder()
+      .maximumSize(cacheMaximumSize)
+      .expireAfterWrite(cacheExpireAfterWriteSeconds, TimeUnit.SECONDS)
+      .recordStats()
+      .build();
+
+    GuavaCacheMetrics.monitor(meterRegistry, contactCache, "contacts");
   }
 
   public List<Contact> getAllContacts() {
     return contactRepo.findAll();
   }
 
-  public Contact createContact(Contact newContact) {
-    if(newContact.getId() != null && contactRepo.findById(newContact.getId()).isPresent()) {
-      throw new ContactAlreadyExistsException();
+  /**
+   * Keyset pagination on id.
+   *
+   * @param after the last id the caller has already seen, 0 for the first page
+   * @param limit the page size, capped at {@link #MAX_PAGE_SIZE}
+   * @return up to limit contacts with an id greater than after, in id order
+   */
+  public List<Contact> getContactsPage(long after, int limit) {
+    int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    return contactRepo.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, pageSize));
+  }
+
+  private static Map<String, String> sortAttributes() {
+    Map<String, String> attributes = new HashMap<>();
+    attributes.put("id", "id");
+    attributes.put("lastName", "searchLastName");
+    attributes.put("city", "searchCity");
+    attributes.put("state", "searchState");
+    attributes.put("zip", "searchZip");
+    attributes.put("email", "searchEmail");
+    return attributes;
+  }
+
+  /**
+   * Searches contacts on the indexed search columns.
+   *
+   * @param criteria  the filters, all of which must match
+   * @param page      zero based page number
+   * @param size      the page size, capped at {@link #MAX_PAGE_SIZE}
+   * @param sort      field to sort on: id, lastName, city, state, zip or email
+   * @param direction sort direction; ties are broken by id
+   * @return the page of matching contacts, with the total number of matches
+   * @throws InvalidRequestException if the sort field is unknown or the page is negative
+   */
+  public Page<Contact> searchContacts(ContactSearchCriteria criteria, int page, int size, String sort, Sort.Direction direction)
+    throws InvalidRequestException {
+    String sortAttribute = SORT_ATTRIBUTES.get(sort);
+    if(sortAttribute == null) {
+      throw new InvalidRequestException(String.format("Cannot sort on '%s'", sort));
+    }
+    if(page < 0) {
+      throw new InvalidRequestException("Page must not be negative");
+    }
+
+    Sort order = Sort.by(direction, sortAttribute);
+    if(!"id".equals(sortAttribute)) {
+      order = order.and(Sort.by(direction, "id"));
+    }
+    int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+    return contactRepo.findAll(searchSpecification(criteria), PageRequest.of(page, pageSize, order));
+  }
+
+  private static Specification<Contact> searchSpecification(ContactSearchCriteria criteria) {
+    List<Specification<Contact>> filters = new ArrayList<>();
+    addFilter(filters, criteria.lastName, value -> searchKeyEquals("searchLastName", value));
+    addFilter(filters, criteria.lastNamePrefix, value -> searchKeyStartsWith("searchLastName", value));
+    addFilter(filters, criteria.city, value -> searchKeyEquals("searchCity", value));
+    addFilter(filters, criteria.state, value -> searchKeyEquals("searchState", value));
+    addFilter(filters, criteria.zip, value -> searchKeyEquals("searchZip", value));
+    addFilter(filters, criteria.email, value -> searchKeyEquals("searchEmail", value));
+    addFilter(filters, criteria.emailPrefix, value -> searchKeyStartsWith("searchEmail", value));
+
+    Specification<Contact> specification = Specification.where(null);
+    for (Specification<Contact> filter : filters) {
+      specification = specification.and(filter);
+    }
+    return specification;
+  }
+
+  private static void addFilter(List<Specification<Contact>> filters, String value,
+                                Function<String, Specification<Contact>> filter) {
+    if(value != null && !value.trim().isEmpty()) {
+      filters.add(filter.apply(value));
     }
+  }
 
-    return contactRepo.save(newContact);
+  /**
+   * Type-ahead suggestions from the in-memory index; does not touch the database.
+   *
+   * @param query the text typed so far
+   * @param limit most suggestions to return, capped at {@link #MAX_SUGGESTIONS}
+   * @return contacts whose names, email or phone numbers start with the words of the query
+   */
+  public List<ContactSuggestion> suggestContacts(String query, int limit) {
+    return suggestIndex.suggest(query, Math.min(limit, MAX_SUGGESTIONS));
   }
 
+  /**
+   * Contacts created, updated or deleted after a watermark, oldest first, read by two range scans
+   * (contacts and tombstones by change seq) merged in (change seq, id) order.
+   *
+   * <p>Write transactions take their change seq as they commit and commit in its order, so every
+   * seq up to the current one is final; reading no further than it, a watermark never passes a
+   * write still to commit, whatever the clocks of the writers or how long they take.
+   *
+   * @param since watermark from an earlier call, or null for every change
+   * @param limit the page size, capped at {@link #MAX_PAGE_SIZE}
+   * @return the changes and the watermark to continue from
+   * @throws InvalidRequestException if since is not a watermark
+   */
+  @Transactional(readOnly = true)
+  public ContactChanges getChanges(String since, int limit) throws InvalidRequestException {
+    long until = getContactListVersion().version;
+    long afterSeq = 0;
+    long afterId = Long.MIN_VALUE;
+    if(since != null && !since.isEmpty()) {
+      String[] watermark = since.split("-", 2);
+      try {
+        afterSeq = Long.parseLong(watermark[0]);
+        afterId = Long.parseLong(watermark[1]);
+      } catch (NumberFormatException | ArrayIndexOutOfBoundsException ex) {
+        throw new InvalidRequestException(String.format("'%s' is not a change watermark", since));
+      }
+      // also what a watermark from before the feed was ordered by change seq looks like
+      if(afterSeq > until) {
+        throw new InvalidRequestException(String.format("'%s' is not a change watermark", since));
+      }
+    }
+
+    int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    PageRequest candidates = PageRequest.of(0, pageSize + 1);
+    List<Contact> updated = contactRepo.findChangedAfter(afterSeq, afterId, until, candidates);
+    List<ContactTombstone> deleted = contactTombstoneRepo.findDeletedAfter(afterSeq, afterId, until, candidates);
+
+    List<ContactChange> changes = new ArrayList<>(pageSize);
+    String watermark = since;
+    int u = 0;
+    int d = 0;
+    while(changes.size() < pageSize && (u < updated.size() || d < deleted.size())) {
+      if(d >= deleted.size() || (u < updated.size() && isBefore(updated.get(u), deleted.get(d)))) {
+        Contact contact = updated.get(u++);
+        changes.add(new ContactChange(ContactChange.Type.UPSERT, contact.getId(), contact.getUpdatedAt(), contact));
+        watermark = contact.getChangeSeq() + "-" + contact.getId();
+      } else {
+        ContactTombstone tombstone = deleted.get(d++);
+        changes.add(new ContactChange(ContactChange.Type.DELETE, tombstone.getContactId(), tombstone.getDeletedAt(), null));
+        watermark = tombstone.getChangeSeq() + "-" + tombstone.getContactId();
+      }
+    }
+
+    return new ContactChanges(changes, watermark, u < updated.size() || d < deleted.size());
+  }
+
+  private static boolean isBefore(Contact contact, ContactTombstone tombstone) {
+    int bySeq = contact.getChangeSeq().compareTo(tombstone.getChangeSeq());
+    return bySeq < 0 || (bySeq == 0 && contact.getId() < tombstone.getContactId());
+  }
+
+  /**
+   * Reverse phone lookup through the normalized phone number index.
+   *
+   * @param number the phone number in any common format
+   * @return the contacts owning the number, in id order
+   * @throws InvalidRequestException if the number has no digits
+   * @throws ContactNotFoundException if no contact has the number
+   */
+  public List<Contact> getContactsByPhone(String number) throws InvalidRequestException, ContactNotFoundException {
+    String normalized = PhoneNumbers.normalize(number);
+    if(normalized == null) {
+      throw new InvalidRequestException(String.format("'%s' is not a phone number", number));
+    }
+
+    List<Contact> owners = contactRepo.findByPhoneNumber(normalized);
+    if(owners.isEmpty()) {
+      throw new ContactNotFoundException();
+    }
+    return owners;
+  }
+
+  /**
+   * Hands every contact to the consumer in id order without holding the whole table in memory.
+   * Each contact is detached once consumed so the persistence context stays empty.
+   *
+   * @param consumer receives each contact
+   */
+  @Transactional(readOnly = true)
+  public void streamAllContacts(Consumer<Contact> consumer) {
+    try (Stream<Contact> contacts = contactRepo.streamAllByOrderByIdAsc()) {
+      contacts.forEach(contact -> {
+        consumer.accept(contact);
+        entityManager.detach(contact);
+      });
+    }
+  }
+
+  /**
+   * Creates a contact.  A contact that arrives with an id is rejected if that id is taken, and
+   * otherwise created under a newly allocated id like any other.
+   */
+  @Transactional
+  public Contact createContact(Contact newContact) throws InvalidRequestException {
+    requireValid(newContact);
+    if(newContact.getId() != null) {
+      if(contactRepo.existsById(newContact.getId())) {
+        throw new ContactAlreadyExistsException();
+      }
+      newContact.setId(null);
+    }
+
+    Contact savedContact = contactRepo.save(newContact);
+    persistPhoneNumbers(Collections.singletonList(savedContact));
+    advanceChangeSequence(Collections.singletonList(savedContact.getId()), Collections.emptyList());
+    afterCommit(() -> {
+      cacheIfNewer(savedContact);
+      suggestIndex.add(savedContact);
+    });
+    return savedContact;
+  }
+
+  @Transactional
   public Contact updateContact(long id, Contact newContact) {
-    if(!contactRepo.findById(id).isPresent()) {
+    return updateContact(id, newContact, ANY_VERSION);
+  }
+
+  /**
+   * Overwrites a contact, if it is still at the version the caller last saw.
+   *
+   * @param expectedVersion the version the update is based on, or {@link #ANY_VERSION}
+   * @return the contact as stored, with its new version
+   * @throws InvalidRequestException         if the contact is not valid
+   * @throws ContactNotFoundException        if there is no contact with that id
+   * @throws ContactVersionConflictException if the contact has been changed since that version
+   */
+  @Transactional
+  public Contact updateContact(long id, Contact newContact, long expectedVersion)
+    throws InvalidRequestException, ContactNotFoundException, ContactVersionConflictException {
+    // the update is a native statement, so the validation JPA runs on save is done here
+    requireValid(newContact);
+    if(contactRepo.updateById(id, newContact, expectedVersion) == 0) {
+      if(expectedVersion != ANY_VERSION && contactRepo.existsById(id)) {
+        throw new ContactVersionConflictException();
+      }
       throw new ContactNotFoundException();
     }
 
-    return contactRepo.save(newContact);
+    newContact.setId(id);
+    newContact.setVersion(contactRepo.findVersionById(id).orElseThrow(ContactNotFoundException::new));
+    replacePhoneNumbers(Collections.singletonList(newContact));
+    advanceChangeSequence(Collections.singletonList(id), Collections.emptyList());
+    afterCommit(() -> {
+      cacheIfNewer(newContact);
+      suggestIndex.add(newContact);
+    });
+    return newContact;
+  }
+
+  /**
+   * @return a validator for the whole contact list, read without loading any contacts
+   */
+  public ContactListVersion getContactListVersion() {
+    return changeSequenceRepo.findListVersion().orElse(ContactListVersion.INITIAL);
   }
 
   public Contact getContact(long id) {
-    return contactRepo.findById(id).orElseThrow(ContactNotFoundException::new);
+    try {
+      return contactCache.get(id, () -> contactRepo.findById(id).orElseThrow(ContactNotFoundException::new));
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new UncheckedExecutionException(e.getCause());
+    }
   }
 
+  @Transactional
   public void deleteContact(long id) {
-    if(!contactRepo.findById(id).isPresent()) {
+    if(contactRepo.deleteContactById(id) == 0) {
       throw new ContactNotFoundException();
     }
+    contactPhoneRepo.deleteByContactIdIn(Collections.singletonList(id));
+    entityManager.persist(new ContactTombstone(id, Contact.writeTime()));
+    advanceChangeSequence(Collections.emptyList(), Collections.singletonList(id));
+    afterCommit(() -> {
+      contactCache.invalidate(id);
+      suggestIndex.remove(id);
+    });
+  }
+
+  /**
+   * Creates the contacts in chunked transactions so Hibernate can batch the inserts.
+   *
+   * @return one result per contact, in request order
+   */
+  public List<BatchItemResult> createContacts(List<Contact> contacts) {
+    List<Long> requestedIds = contacts.stream().map(Contact::getId).collect(Collectors.toList());
+
+    List<BatchItemResult> batchResults = processInChunks(contacts, (chunk, offset) -> {
+      Set<Long> takenIds = existingIds(requestedIds.subList(offset, offset + chunk.size()));
+
+      List<BatchItemResult> results = new ArrayList<>(chunk.size());
+      for(int i = 0; i < chunk.size(); i++) {
+        Contact contact = chunk.get(i);
+        Long requestedId = requestedIds.get(offset + i);
+        if(requestedId != null && takenIds.contains(requestedId)) {
+          results.add(new BatchItemResult(offset + i, requestedId, HttpStatus.BAD_REQUEST.value(), "Contact already exists"));
+          continue;
+        }
+
+        contact.setId(null);
+        entityManager.persist(contact);
+        advanceChangeSequence(Collections.singletonList(contact.getId()), Collections.emptyList());
+        results.add(new BatchItemResult(offset + i, contact.getId(), HttpStatus.OK.value(), null));
+      }
+      persistPhoneNumbers(succeeded(chunk, results, offset));
+      return results;
+    });
+
+    forEachSucceeded(batchResults, result -> suggestIndex.add(contacts.get(result.index)));
+    return batchResults;
+  }
+
+  /**
+   * Updates the contacts, matched by id, in chunked transactions.  Each chunk loads its contacts
+   * with one query and writes them back as batched updates.
+   *
+   * @return one result per contact, in request order
+   */
+  public List<BatchItemResult> updateContacts(List<Contact> contacts) {
+    List<BatchItemResult> batchResults = processInChunks(contacts, (chunk, offset) -> {
+      Set<Long> ids = chunk.stream().map(Contact::getId).filter(Objects::nonNull).collect(Collectors.toSet());
+      Map<Long, Contact> storedContacts = contactRepo.findAllById(ids).stream()
+        .collect(Collectors.toMap(Contact::getId, Function.identity()));
+
+      List<BatchItemResult> results = new ArrayList<>(chunk.size());
+      for(int i = 0; i < chunk.size(); i++) {
+        Contact contact = chunk.get(i);
+        Contact storedContact = (contact.getId() == null) ? null : storedContacts.get(contact.getId());
+        if(storedContact == null) {
+          results.add(new BatchItemResult(offset + i, contact.getId(), HttpStatus.NOT_FOUND.value(), "Contact not found"));
+          continue;
+        }
+
+        storedContact.setName(contact.getName());
+        storedContact.setAddress(contact.getAddress());
+        storedContact.setPhone(contact.getPhone());
+        storedContact.setEmail(contact.getEmail());
+        advanceChangeSequence(Collections.singletonList(storedContact.getId()), Collections.emptyList());
+        afterCommit(() -> contactCache.invalidate(storedContact.getId()));
+        results.add(new BatchItemResult(offset + i, contact.getId(), HttpStatus.OK.value(), null));
+      }
+      replacePhoneNumbers(succeeded(chunk, results, offset));
+      return results;
+    });
+
+    forEachSucceeded(batchResults, result -> suggestIndex.add(contacts.get(result.index)));
+    return batchResults;
+  }
+
+  /**
+   * Deletes the contacts with one query and one delete per chunk.
+   *
+   * @return one result per id, in request order
+   */
+  public List<BatchItemResult> deleteContacts(List<Long> ids) {
+    List<BatchItemResult> batchResults = processInChunks(ids, (chunk, offset) -> {
+      Set<Long> existingIds = existingIds(chunk);
+      if(!existingIds.isEmpty()) {
+        contactRepo.deleteContactsByIdIn(existingIds);
+        contactPhoneRepo.deleteByContactIdIn(existingIds);
+        Instant deletedAt = Contact.writeTime();
+        existingIds.forEach(id -> entityManager.persist(new ContactTombstone(id, deletedAt)));
+        advanceChangeSequence(Collections.emptyList(), existingIds);
+      }
 
-    contactRepo.deleteById(id);
+      List<BatchItemResult> results = new ArrayList<>(chunk.size());
+      for(int i = 0; i < chunk.size(); i++) {
+        Long id = chunk.get(i);
+        if(existingIds.contains(id)) {
+          afterCommit(() -> contactCache.invalidate(id));
+          results.add(new BatchItemResult(offset + i, id, HttpStatus.OK.value(), null));
+        } else {
+          results.add(new BatchItemResult(offset + i, id, HttpStatus.NOT_FOUND.value(), "Contact not found"));
+        }
+      }
+      return results;
+    });
+
+    forEachSucceeded(batchResults, result -> suggestIndex.remove(result.id));
+    return batchResults;
   }
 
+  @Transactional
   public void deleteAll() {
+    contactPhoneRepo.deleteAllInBatch();
+    contactTombstoneRepo.deleteAllInBatch();
     contactRepo.deleteAll();
+    advanceChangeSequence(Collections.emptyList(), Collections.emptyList());
+    afterCommit(() -> {
+      contactCache.invalidateAll();
+      suggestIndex.clear();
+    });
+  }
+
+  /**
+   * Validates a contact before it is written, so an invalid one is a 400 rather than whatever
+   * the write would fail with.
+   */
+  private void requireValid(Contact contact) throws InvalidRequestException {
+    Set<ConstraintViolation<Contact>> violations = validator.validate(contact);
+    if(!violations.isEmpty()) {
+      throw new InvalidRequestException(describe(violations));
+    }
+  }
+
+  /**
+   * @return the violations as "property message" pairs, in a stable order
+   */
+  static String describe(Set<ConstraintViolation<Contact>> violations) {
+    return violations.stream()
+      .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+      .sorted()
+      .collect(Collectors.joining(", "));
+  }
+
+  private static <T> List<T> succeeded(List<T> chunk, List<BatchItemResult> results, int offset) {
+    List<T> items = new ArrayList<>(chunk.size());
+    for(BatchItemResult result : results) {
+      if(result.status == HttpStatus.OK.value()) {
+        items.add(chunk.get(result.index - offset));
+      }
+    }
+    return items;
+  }
+
+  /**
+   * Rewrites the phone number index rows of existing contacts.  When a contact appears more than
+   * once the last one wins, as it does for the contact itself.
+   */
+  private void replacePhoneNumbers(List<Contact> contacts) {
+    if(contacts.isEmpty()) {
+      return;
+    }
+    Map<Long, Contact> lastById = new LinkedHashMap<>();
+    contacts.forEach(contact -> lastById.put(contact.getId(), contact));
+    contactPhoneRepo.deleteByContactIdIn(lastById.keySet());
+    persistPhoneNumbers(new ArrayList<>(lastById.values()));
+  }
+
+  private void persistPhoneNumbers(List<Contact> contacts) {
+    for(Contact contact : contacts) {
+      if(contact.getPhone() == null) {
+        continue;
+      }
+      Set<String> numbers = new HashSet<>();
+      for(Phone phone : contact.getPhone()) {
+        String number = phone == null ? null : PhoneNumbers.normalize(phone.getNumber());
+        if(number != null && numbers.add(number)) {
+          entityManager.persist(new ContactPhone(contact.getId(), number));
+        }
+      }
+    }
+  }
+
+  /**
+   * Caches a contact just committed, unless the cache already has a later version: the commits
+   * of concurrent updates to one contact may run their callbacks in either order.  Unlike an
+   * invalidate, this also replaces whatever a concurrent miss may be loading.
+   */
+  private void cacheIfNewer(Contact contact) {
+    contactCache.asMap().merge(contact.getId(), contact,
+      (cached, stored) -> stored.getVersion() >= cached.getVersion() ? stored : cached);
+  }
+
+  /**
+   * Advances the change sequence for the current transaction's writes, once, as the last
+   * statement before it commits, so the sequence row is locked only for the commit itself, and
+   * stamps the contacts and tombstones written with the value it advanced to.
+   *
+   * @param upsertedIds contacts created or updated
+   * @param deletedIds  contacts deleted, whose tombstones were written
+   */
+  private void advanceChangeSequence(Collection<Long> upsertedIds, Collection<Long> deletedIds) {
+    if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+      ChangeSequenceAdvance advance = new ChangeSequenceAdvance();
+      advance.add(upsertedIds, deletedIds);
+      advance.beforeCommit(false);
+      return;
+    }
+    for(TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+      if(synchronization instanceof ChangeSequenceAdvance) {
+        ((ChangeSequenceAdvance) synchronization).add(upsertedIds, deletedIds);
+        return;
+      }
+    }
+    ChangeSequenceAdvance advance = new ChangeSequenceAdvance();
+    advance.add(upsertedIds, deletedIds);
+    TransactionSynchronizationManager.registerSynchronization(advance);
+  }
+
+  private long advanceChangeSequenceNow() {
+    // the row is created by the 006 migration; a schema generated from the entities starts without it
+    if(changeSequenceRepo.advance() == 0) {
+      return changeSequenceRepo.save(new ContactChangeSequence(ContactChangeSequence.ID, 1, Instant.now())).getSeq();
+    }
+    return changeSequenceRepo.findSeq();
+  }
+
+  private class ChangeSequenceAdvance extends TransactionSynchronizationAdapter {
+    private final Set<Long> upsertedIds = new HashSet<>();
+    private final Set<Long> deletedIds = new HashSet<>();
+
+    void add(Collection<Long> upserted, Collection<Long> deleted) {
+      upsertedIds.addAll(upserted);
+      deletedIds.addAll(deleted);
+    }
+
+    @Override
+    public void beforeCommit(boolean readOnly) {
+      long seq = advanceChangeSequenceNow();
+      if(!upsertedIds.isEmpty()) {
+        contactRepo.setChangeSeq(upsertedIds, seq);
+      }
+      if(!deletedIds.isEmpty()) {
+        contactTombstoneRepo.setChangeSeq(deletedIds, seq);
+      }
+    }
+  }
+
+  /**
+   * Runs the action once the current transaction commits, or right away outside of one, so the
+   * cache and the suggest index never show a write that is rolled back.
+   */
+  private static void afterCommit(Runnable action) {
+    if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+
+  // the in-memory index follows only committed writes, so it is updated once all chunks are done
+  private static void forEachSucceeded(List<BatchItemResult> results, Consumer<BatchItemResult> action) {
+    for(BatchItemResult result : results) {
+      if(result.status == HttpStatus.OK.value()) {
+        action.accept(result);
+      }
+    }
+  }
+
+  /**
+   * Runs the operation over the items one transaction per chunk, flushing and clearing the
+   * persistence context after each.  A failure rolls back its whole chunk, so that chunk is then
+   * redone one item at a time to find out which items are to blame.
+   *
+   * @param operation given a chunk and the index of its first item, returns a result per item
+   */
+  private <T> List<BatchItemResult> processInChunks(List<T> items, BiFunction<List<T>, Integer, List<BatchItemResult>> operation) {
+    List<BatchItemResult> results = new ArrayList<>(items.size());
+
+    for(int offset = 0; offset < items.size(); offset += batchChunkSize) {
+      List<T> chunk = items.subList(offset, Math.min(offset + batchChunkSize, items.size()));
+      try {
+        results.addAll(runInTransaction(chunk, offset, operation));
+      } catch (RuntimeException chunkEx) {
+        for(int i = 0; i < chunk.size(); i++) {
+          try {
+            results.addAll(runInTransaction(chunk.subList(i, i + 1), offset + i, operation));
+          } catch (RuntimeException itemEx) {
+            results.add(new BatchItemResult(offset + i, null, failureStatus(itemEx).value(), itemEx.toString()));
+          }
+        }
+      }
+    }
+
+    return results;
+  }
+
+  private <T> List<BatchItemResult> runInTransaction(List<T> chunk, int offset, BiFunction<List<T>, Integer, List<BatchItemResult>> operation) {
+    return transactionTemplate.execute(status -> {
+      List<BatchItemResult> results = operation.apply(chunk, offset);
+      entityManager.flush();
+      entityManager.clear();
+      return results;
+    });
+  }
+
+  private static HttpStatus failureStatus(RuntimeException ex) {
+    if(ex instanceof DataIntegrityViolationException || ex instanceof ConstraintViolationException) {
+      return HttpStatus.BAD_REQUEST;
+    }
+    return HttpStatus.INTERNAL_SERVER_ERROR;
+  }
+
+  private Set<Long> existingIds(List<Long> ids) {
+    Set<Long> nonNullIds = ids.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+    return nonNullIds.isEmpty() ? Collections.emptySet() : new HashSet<>(contactRepo.findExistingIds(nonNullIds));
   }
 
 }
@@ -0,0 +1,358 @@
+package contacts.services;
+
+import contacts.models.Contact;
+import contacts.models.ContactSuggestion;
+import contacts.models.contactattributes.Name;
+import contacts.models.contactattributes.Phone;
+import contacts.repositories.ContactRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory prefix index over contact first and last names, emails and phone numbers, for
+ * type-ahead suggestions that never touch the database.
+ *
+ * <p>Each contact is given an int slot, and each term maps to the sorted slots of the contacts
+ * having it.  Terms are kept in a sorted map so a prefix is a range of terms.  The index is built
+ * from the repository at startup and then kept current by {@link ContactService} writes.
+ *
+ * <p>A rebuild reads into a new index without holding the lock, so suggestions are served from
+ * the old one meanwhile; writes made during the rebuild go to both and the new one is swapped in.
+ */
+@Component
+public class ContactSuggestIndex {
+
+  private static final Logger logger = LogManager.getLogger(ContactSuggestIndex.class);
+
+  private static final Pattern PHONE_WORD = Pattern.compile("\\+?[0-9().\\-]*[0-9][0-9().\\-]*");
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+  private static final Pattern EMAIL_SEPARATORS = Pattern.compile("[@._+\\-]");
+
+  private final ContactRepository contactRepo;
+  private final TransactionTemplate transactionTemplate;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private Index index = new Index();
+  // the writes made while a rebuild is reading, to replay on the new index; null otherwise
+  private List<Consumer<Index>> writesDuringRebuild;
+
+  public ContactSuggestIndex(ContactRepository contactRepo, PlatformTransactionManager transactionManager) {
+    this.contactRepo = contactRepo;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setReadOnly(true);
+  }
+
+  /**
+   * Builds the index from every contact in the repository, and swaps it in when done.
+   */
+  @EventListener(ContextRefreshedEvent.class)
+  public synchronized void rebuild() {
+    long start = System.nanoTime();
+    lock.writeLock().lock();
+    try {
+      writesDuringRebuild = new ArrayList<>();
+    } finally {
+      lock.writeLock().unlock();
+    }
+
+    Index rebuilt = new Index();
+    boolean read = false;
+    try {
+      transactionTemplate.execute(status -> {
+        try (Stream<Contact> contacts = contactRepo.streamAllByOrderByIdAsc()) {
+          contacts.forEach(rebuilt::add);
+        }
+        return null;
+      });
+      read = true;
+    } finally {
+      lock.writeLock().lock();
+      try {
+        if(read) {
+          writesDuringRebuild.forEach(write -> write.accept(rebuilt));
+          index = rebuilt;
+        }
+        writesDuringRebuild = null;
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+    logger.info("Built contact suggest index of {} contacts in {} ms",
+      size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+  }
+
+  /**
+   * Adds the contact, replacing what was indexed for its id before.
+   */
+  public void add(Contact contact) {
+    Document document = new Document(contact);
+    write(current -> current.add(contact.getId(), document));
+  }
+
+  public void remove(long id) {
+    write(current -> current.remove(id));
+  }
+
+  public void clear() {
+    write(Index::clear);
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return index.slotsById.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Contacts having, for every word of the query, a name, email or phone number starting with it.
+   * Phone numbers match on their digits alone.
+   *
+   * @param query the text typed so far
+   * @param limit most suggestions to return
+   * @return the suggestions, ordered by the term that matched the first word
+   */
+  public List<ContactSuggestion> suggest(String query, int limit) {
+    List<String> prefixes = queryPrefixes(query);
+    if(prefixes.isEmpty() || limit < 1) {
+      return Collections.emptyList();
+    }
+
+    String first = prefixes.get(0);
+    List<String> others = prefixes.subList(1, prefixes.size());
+    List<ContactSuggestion> suggestions = new ArrayList<>(Math.min(limit, 16));
+    Set<Integer> suggested = new HashSet<>();
+
+    lock.readLock().lock();
+    try {
+      for (Postings postings : index.postingsByTerm.subMap(first, true, first + Character.MAX_VALUE, false).values()) {
+        for (int i = 0; i < postings.size; i++) {
+          int slot = postings.slots[i];
+          Document document = index.documents.get(slot);
+          if(!suggested.contains(slot) && document.matchesAll(others)) {
+            suggested.add(slot);
+            suggestions.add(document.suggestion);
+            if(suggestions.size() >= limit) {
+              return suggestions;
+            }
+          }
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    return suggestions;
+  }
+
+  /**
+   * Applies the write to the index, and records it for the new one if a rebuild is reading.
+   */
+  private void write(Consumer<Index> write) {
+    lock.writeLock().lock();
+    try {
+      write.accept(index);
+      if(writesDuringRebuild != null) {
+        writesDuringRebuild.add(write);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private static List<String> queryPrefixes(String query) {
+    List<String> prefixes = new ArrayList<>();
+    if(query == null) {
+      return prefixes;
+    }
+    for (String word : WHITESPACE.split(query.trim().toLowerCase(Locale.ROOT))) {
+      String prefix = isPhoneNumber(word) ? digits(word) : word;
+      if(!prefix.isEmpty()) {
+        prefixes.add(prefix);
+      }
+    }
+    return prefixes;
+  }
+
+  private static boolean isPhoneNumber(String word) {
+    return PHONE_WORD.matcher(word).matches();
+  }
+
+  private static String digits(String value) {
+    StringBuilder digits = new StringBuilder(value.length());
+    for (char c : value.toCharArray()) {
+      if(c >= '0' && c <= '9') {
+        digits.append(c);
+      }
+    }
+    return digits.toString();
+  }
+
+  /**
+   * The postings, documents and slots of one build of the index, guarded by the lock.
+   */
+  private static final class Index {
+
+    private final NavigableMap<String, Postings> postingsByTerm = new TreeMap<>();
+    private final Map<Long, Integer> slotsById = new HashMap<>();
+    private final List<Document> documents = new ArrayList<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+
+    private void add(Contact contact) {
+      add(contact.getId(), new Document(contact));
+    }
+
+    private void add(Long id, Document document) {
+      remove(id);
+      Integer freeSlot = freeSlots.poll();
+      int slot = freeSlot == null ? documents.size() : freeSlot;
+      if(freeSlot == null) {
+        documents.add(document);
+      } else {
+        documents.set(slot, document);
+      }
+      slotsById.put(id, slot);
+
+      for (String term : document.terms) {
+        postingsByTerm.computeIfAbsent(term, t -> new Postings()).add(slot);
+      }
+    }
+
+    private void remove(Long id) {
+      Integer slot = id == null ? null : slotsById.remove(id);
+      if(slot == null) {
+        return;
+      }
+
+      for (String term : documents.get(slot).terms) {
+        Postings postings = postingsByTerm.get(term);
+        if(postings != null && postings.remove(slot) && postings.size == 0) {
+          postingsByTerm.remove(term);
+        }
+      }
+      documents.set(slot, null);
+      freeSlots.push(slot);
+    }
+
+    private void clear() {
+      postingsByTerm.clear();
+      slotsById.clear();
+      documents.clear();
+      freeSlots.clear();
+    }
+
+  }
+
+  /**
+   * A contact's terms and the suggestion returned for it.
+   */
+  private static final class Document {
+
+    private final String[] terms;
+    private final ContactSuggestion suggestion;
+
+    private Document(Contact contact) {
+      Set<String> contactTerms = new LinkedHashSet<>();
+      Name name = contact.getName();
+      if(name != null) {
+        addWord(contactTerms, name.getFirst());
+        addWord(contactTerms, name.getLast());
+      }
+
+      String email = contact.getEmail();
+      if(email != null) {
+        String lowerEmail = email.toLowerCase(Locale.ROOT);
+        addWord(contactTerms, lowerEmail);
+        for (String part : EMAIL_SEPARATORS.split(lowerEmail)) {
+          addWord(contactTerms, part);
+        }
+      }
+
+      if(contact.getPhone() != null) {
+        for (Phone phone : contact.getPhone()) {
+          if(phone != null && phone.getNumber() != null) {
+            addWord(contactTerms, digits(phone.getNumber()));
+          }
+        }
+      }
+
+      this.terms = contactTerms.toArray(new String[0]);
+      this.suggestion = new ContactSuggestion(contact.getId(),
+        name == null ? null : name.toString(), email);
+    }
+
+    private static void addWord(Set<String> terms, String word) {
+      if(word != null && !word.trim().isEmpty()) {
+        terms.add(word.trim().toLowerCase(Locale.ROOT));
+      }
+    }
+
+    private boolean matchesAll(List<String> prefixes) {
+      for (String prefix : prefixes) {
+        if(!matches(prefix)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private boolean matches(String prefix) {
+      for (String term : terms) {
+        if(term.startsWith(prefix)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+  }
+
+  /**
+   * A growable sorted set of slots backed by an int array.
+   */
+  private static final class Postings {
+
+    private int[] slots = new int[2];
+    private int size;
+
+    private void add(int slot) {
+      int position = Arrays.binarySearch(slots, 0, size, slot);
+      if(position >= 0) {
+        return;
+      }
+      int insertAt = -position - 1;
+      if(size == slots.length) {
+        slots = Arrays.copyOf(slots, size * 2);
+      }
+      System.arraycopy(slots, insertAt, slots, insertAt + 1, size - insertAt);
+      slots[insertAt] = slot;
+      size++;
+    }
+
+    private boolean remove(int slot) {
+      int position = Arrays.binarySearch(slots, 0, size, slot);
+      if(position < 0) {
+        return false;
+      }
+      System.arraycopy(slots, position + 1, slots, position, size - position - 1);
+      size--;
+      return true;
+    }
+
+  }
+
+}
@@ -0,0 +1,24 @@
+package contacts.singletons;
+
+import com.amazonaws.services.secretsmanager.AWSSecretsManager;
+import com.amazonaws.services.secretsmanager.model.GetSecretValueRequest;
+
+/**
+ * Reads secrets from AWS Secrets Manager.
+ */
+public class AwsSecretSource implements SecretSource {
+
+  private final AWSSecretsManager awsSecretsManager;
+
+  public AwsSecretSource(AWSSecretsManager awsSecretsManager) {
+    this.awsSecretsManager = awsSecretsManager;
+  }
+
+  @Override
+  public String getSecretString(String secretName) {
+    return awsSecretsManager
+      .getSecretValue(new GetSecretValueRequest().withSecretId(secretName))
+      .getSecretString();
+  }
+
+}
@@ -0,0 +1,31 @@
+package contacts.singletons;
+
+import contacts.exceptions.ContactsRuntimeException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads secrets from files under a directory, the secret name being the file's relative path.
+ * A local stand-in for AWS Secrets Manager.
+ */
+public class FileSecretSource implements SecretSource {
+
+  private final Path directory;
+
+  public FileSecretSource(Path directory) {
+    this.directory = directory;
+  }
+
+  @Override
+  public String getSecretString(String secretName) {
+    try {
+      return new String(Files.readAllBytes(directory.resolve(secretName)), StandardCharsets.UTF_8);
+    } catch (IOException ex) {
+      throw new ContactsRuntimeException(String.format("Failed to read secret '%s'", secretName), ex);
+    }
+  }
+
+}
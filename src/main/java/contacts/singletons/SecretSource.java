@@ -0,0 +1,15 @@
+package contacts.singletons;
+
+/**
+ * Where {@link SecretsManager} reads secrets from.
+ */
+public interface SecretSource {
+
+  /**
+   * @param secretName the full name of the secret
+   * @return the secret's value
+   * @throws RuntimeException if the secret cannot be read
+   */
+  String getSecretString(String secretName);
+
+}
@@ -1,92 +1,128 @@
 package contacts.singletons;
 
-import com.amazonaws.regions.Regions;
-import com.amazonaws.services.secretsmanager.AWSSecretsManager;
-import com.amazonaws.services.secretsmanager.AWSSecretsManagerClientBuilder;
-import com.amazonaws.services.secretsmanager.model.GetSecretValueRequest;
-import com.amazonaws.services.secretsmanager.model.GetSecretValueResult;
+import com.google.common.base.Ticker;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.gson.Gson;
-import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import contacts.exceptions.ContactsRuntimeException;
+import contacts.security.ServiceTokenIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.springframework.security.authentication.BadCredentialsException;
 
-import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Verifies service tokens against the authorizations secret.  One instance is shared by the
+ * application as a Spring bean; it is safe for concurrent use.
+ */
 public class SecretsManager {
 
+  private static final Logger logger = LogManager.getLogger(SecretsManager.class);
+
   private static final int MAX_CACHE_RETRIES = 3;
+  private static final long REFRESH_AFTER_MINUTES = 10;
+  private static final long MAX_STALENESS_MINUTES = 60;
 
   private static final String CONTACTS_APP_BASE_PATH = "AWS/Secret/Path/Prefix";
   private static final String SERVICE_AUTH_BODY = "/authorizations";
 
-  private AWSSecretsManager awsSecretsManager;
-  private LoadingCache<String, JsonObject> secrets;
-
-  private static SecretsManager instance;
-
-  private SecretsManager() {
-    awsSecretsManager = AWSSecretsManagerClientBuilder.standard()
-      .withRegion(Regions.US_EAST_1)
-      .build();
+  private final SecretSource secretSource;
+  private final LoadingCache<String, ServiceTokenIndex> serviceTokenIndexes;
+
+  /**
+   * Constructor.
+   *
+   * @param secretSource  where to read secrets from
+   * @param meterRegistry where to report secret load counts and latency
+   */
+  public SecretsManager(SecretSource secretSource, MeterRegistry meterRegistry) {
+    this(secretSource, meterRegistry, Ticker.systemTicker());
+  }
 
-    // cache all secrets to avoid network calls
-    secrets = CacheBuilder.newBuilder()
+  /**
+   * Constructor.
+   *
+   * @param secretSource  where to read secrets from
+   * @param meterRegistry where to report secret load counts and latency
+   * @param ticker        time source for refresh and expiry
+   */
+  SecretsManager(SecretSource secretSource, MeterRegistry meterRegistry, Ticker ticker) {
+    this.secretSource = secretSource;
+
+    Executor refreshExecutor = Executors.newSingleThreadExecutor(
+      new ThreadFactoryBuilder().setNameFormat("secrets-refresh-%d").setDaemon(true).build());
+
+    // cache secrets, compiled into lookup indexes, to avoid network calls; an entry is replaced
+    // as a whole when it reloads, so lookups never see a half built index.  Entries older than
+    // the refresh interval are reloaded in the background while the old value keeps being
+    // served, and kept if the reload fails, until they pass the maximum staleness.
+    serviceTokenIndexes = CacheBuilder.newBuilder()
       .maximumSize(1000)
-      .expireAfterWrite(10, TimeUnit.MINUTES)
-      .build(
-        new CacheLoader<String, JsonObject>() {
-          public JsonObject load(String key) {
-            return loadSecret(key);
+      .refreshAfterWrite(REFRESH_AFTER_MINUTES, TimeUnit.MINUTES)
+      .expireAfterWrite(MAX_STALENESS_MINUTES, TimeUnit.MINUTES)
+      .ticker(ticker)
+      .recordStats()
+      .build(CacheLoader.asyncReloading(
+        new CacheLoader<String, ServiceTokenIndex>() {
+          public ServiceTokenIndex load(String key) {
+            return ServiceTokenIndex.compile(loadSecret(key));
           }
-        });
+        }, refreshExecutor));
+
+    // cache.load{result=success|failure} counts loads and failed refreshes, cache.load.duration their latency
+    GuavaCacheMetrics.monitor(meterRegistry, serviceTokenIndexes, "secrets");
   }
 
-  public static SecretsManager getInstance() {
-    if (instance == null) {
-      instance = new SecretsManager();
-    }
-    return instance;
+  /**
+   * Load the authorizations secret now, so the first request does not pay for it.
+   *
+   * @return the number of service tokens loaded
+   * @throws ContactsRuntimeException if the secret could not be loaded
+   */
+  public int prefetchServiceTokens() throws ContactsRuntimeException {
+    return getServiceTokenIndex(SERVICE_AUTH_BODY).size();
   }
 
   private JsonObject loadSecret(String key) {
-    GetSecretValueResult result = awsSecretsManager
-      .getSecretValue(new GetSecretValueRequest().withSecretId(key));
-    return new Gson().fromJson(result.getSecretString(), JsonObject.class);
+    try {
+      return new Gson().fromJson(secretSource.getSecretString(key), JsonObject.class);
+    } catch (RuntimeException ex) {
+      logger.warn("Failed to load secret '{}', serving the cached value if there is one: {}", key, ex.toString());
+      throw ex;
+    }
   }
 
-  private JsonObject getSecretPath(String secretNameBody) throws ContactsRuntimeException {
+  private ServiceTokenIndex getServiceTokenIndex(String secretNameBody) throws ContactsRuntimeException {
     int numRetries = 0;
+    Throwable lastFailure = null;
 
+    // only a cold load can fail here; failed background refreshes keep serving the cached index
     while (numRetries < MAX_CACHE_RETRIES) {
       try {
-        return secrets.get(CONTACTS_APP_BASE_PATH + secretNameBody);
-      } catch (ExecutionException e) {
+        return serviceTokenIndexes.get(CONTACTS_APP_BASE_PATH + secretNameBody);
+      } catch (ExecutionException | UncheckedExecutionException e) {
+        lastFailure = e.getCause();
         numRetries++;
       }
     }
 
-    throw new ContactsRuntimeException("Failed to get SecretsManager data");
+    throw new ContactsRuntimeException("Failed to get SecretsManager data", lastFailure);
   }
 
   public String verifyServiceToken(String serviceToken) throws BadCredentialsException {
-    JsonObject serviceTokens = getSecretPath(SERVICE_AUTH_BODY);
-    Set<Map.Entry<String, JsonElement>> entries = serviceTokens.entrySet();
-
-    for(Map.Entry<String, JsonElement> entry : entries) {
-      if(entry.getValue().getAsString().equals(serviceToken)) {
-        return entry.getKey();
-      }
-    }
-
-    throw new BadCredentialsException(String.format("Secret value '%s' not found in Contact Authorizations secrets set", serviceToken));
+    return getServiceTokenIndex(SERVICE_AUTH_BODY)
+      .clientFor(serviceToken)
+      .orElseThrow(() -> new BadCredentialsException(String.format("Secret value '%s' not found in Contact Authorizations secrets set", serviceToken)));
   }
 
 }
-
@@ -0,0 +1,8 @@
+-- Contact ids move from AUTO_INCREMENT to a Hibernate table-backed sequence (see Contact.id) so
+-- inserts can be batched.  MySQL has no sequences, so Hibernate keeps the next block start here.
+CREATE TABLE contact_id_seq (
+  next_val BIGINT NOT NULL
+);
+
+INSERT INTO contact_id_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 1 FROM contact;
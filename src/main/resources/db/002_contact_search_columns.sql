@@ -0,0 +1,21 @@
+-- Name and address are stored as json, which MySQL cannot index.  The fields clients search on
+-- are copied, lower-cased, into plain indexed columns (see Contact.updateSearchColumns).
+ALTER TABLE contact
+  ADD COLUMN search_last_name VARCHAR(255),
+  ADD COLUMN search_city VARCHAR(255),
+  ADD COLUMN search_state VARCHAR(255),
+  ADD COLUMN search_zip VARCHAR(255),
+  ADD COLUMN search_email VARCHAR(255);
+
+UPDATE contact SET
+  search_last_name = LOWER(TRIM(JSON_UNQUOTE(JSON_EXTRACT(name, '$.last')))),
+  search_city = LOWER(TRIM(JSON_UNQUOTE(JSON_EXTRACT(address, '$.city')))),
+  search_state = LOWER(TRIM(JSON_UNQUOTE(JSON_EXTRACT(address, '$.state')))),
+  search_zip = LOWER(TRIM(JSON_UNQUOTE(JSON_EXTRACT(address, '$.zip')))),
+  search_email = LOWER(TRIM(email));
+
+CREATE INDEX idx_contact_search_last_name ON contact (search_last_name);
+CREATE INDEX idx_contact_search_state_city ON contact (search_state, search_city);
+CREATE INDEX idx_contact_search_city ON contact (search_city);
+CREATE INDEX idx_contact_search_zip ON contact (search_zip);
+CREATE INDEX idx_contact_search_email ON contact (search_email);
@@ -0,0 +1,20 @@
+-- Phone numbers are stored as a json array, which cannot be indexed.  Each number is also kept
+-- here, normalized to "+" and digits (see PhoneNumbers.normalize), for reverse lookups.
+CREATE TABLE contact_phone (
+  contact_id BIGINT NOT NULL,
+  number VARCHAR(32) NOT NULL,
+  PRIMARY KEY (number, contact_id),
+  INDEX idx_contact_phone_contact_id (contact_id)
+);
+
+-- backfill; JSON_TABLE and REGEXP_REPLACE need MySQL 8
+INSERT IGNORE INTO contact_phone (contact_id, number)
+SELECT contact.id,
+  CASE
+    WHEN TRIM(phones.number) LIKE '+%' THEN CONCAT('+', REGEXP_REPLACE(phones.number, '[^0-9]', ''))
+    WHEN LENGTH(REGEXP_REPLACE(phones.number, '[^0-9]', '')) = 10 THEN CONCAT('+1', REGEXP_REPLACE(phones.number, '[^0-9]', ''))
+    ELSE CONCAT('+', REGEXP_REPLACE(phones.number, '[^0-9]', ''))
+  END
+FROM contact,
+  JSON_TABLE(contact.phone, '$[*]' COLUMNS (number VARCHAR(255) PATH '$.number')) AS phones
+WHERE REGEXP_REPLACE(phones.number, '[^0-9]', '') <> '';
@@ -0,0 +1,7 @@
+-- Write version and time of each contact, for ETag / Last-Modified validators and optimistic
+-- locking.  The updated_at index lets the list validator read max(updated_at) without a scan.
+ALTER TABLE contact
+  ADD COLUMN version BIGINT NOT NULL DEFAULT 0,
+  ADD COLUMN updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3);
+
+CREATE INDEX idx_contact_updated_at ON contact (updated_at);
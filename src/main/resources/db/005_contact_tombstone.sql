@@ -0,0 +1,8 @@
+-- Deleted contacts leave a tombstone so the change feed can report the delete.  The feed reads
+-- contacts by (updated_at, id), which the updated_at index from 004 covers since InnoDB
+-- secondary indexes carry the primary key, and tombstones by (deleted_at, contact_id).
+CREATE TABLE contact_tombstone (
+  contact_id BIGINT NOT NULL PRIMARY KEY,
+  deleted_at TIMESTAMP(3) NOT NULL,
+  INDEX idx_contact_tombstone_deleted_at (deleted_at, contact_id)
+);
@@ -0,0 +1,10 @@
+-- One row counting committed writes to contacts, advanced by every write transaction just before
+-- it commits.  Its value is the contact list's ETag, read by primary key rather than aggregated
+-- over the contact table on every conditional GET.
+CREATE TABLE contact_change_sequence (
+  id INT NOT NULL PRIMARY KEY,
+  seq BIGINT NOT NULL,
+  changed_at TIMESTAMP(3) NULL
+);
+
+INSERT INTO contact_change_sequence (id, seq, changed_at) VALUES (1, 0, NULL);
@@ -0,0 +1,14 @@
+-- The change feed reads contacts and tombstones in change sequence order (see 006) instead of by
+-- write time, which comes from the writers' clocks and is taken before they commit.  Each write
+-- transaction stamps its rows with the sequence value it advanced to; rows written before this
+-- migration keep 0 and are read first.
+ALTER TABLE contact
+  ADD COLUMN change_seq BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX idx_contact_change_seq ON contact (change_seq, id);
+DROP INDEX idx_contact_updated_at ON contact;
+
+ALTER TABLE contact_tombstone
+  ADD COLUMN change_seq BIGINT NOT NULL DEFAULT 0,
+  DROP INDEX idx_contact_tombstone_deleted_at,
+  ADD INDEX idx_contact_tombstone_change_seq (change_seq, contact_id);
@@ -0,0 +1,44 @@
+package contacts.benchmarks;
+
+import contacts.ContactFixture;
+import contacts.models.Contact;
+import contacts.models.contactattributes.Name;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Only used for benchmarks.  Scales the contacts in testcontacts.json up to any number of rows.
+ */
+public class BenchmarkData {
+
+  private static final List<Contact> FIXTURES = ContactFixture.getContactsListFixture();
+
+  /**
+   * Builds contacts based on the fixtures with a unique name and email per row.
+   *
+   * @param rows    how many contacts to build
+   * @param withIds whether to number the ids from 1, or leave them null for inserts
+   * @return the contacts
+   */
+  public static List<Contact> contacts(int rows, boolean withIds) {
+    List<Contact> contacts = new ArrayList<>(rows);
+    for (int i = 0; i < rows; i++) {
+      contacts.add(contact(i, withIds ? Long.valueOf(i + 1) : null));
+    }
+    return contacts;
+  }
+
+  public static Contact contact(int row, Long id) {
+    Contact fixture = FIXTURES.get(row % FIXTURES.size());
+
+    Contact contact = new Contact();
+    contact.setId(id);
+    contact.setName(new Name(fixture.getName().getFirst(), fixture.getName().getMiddle(), fixture.getName().getLast() + row));
+    contact.setAddress(fixture.getAddress());
+    contact.setPhone(fixture.getPhone());
+    contact.setEmail(String.format("contact%d@example.com", row));
+    return contact;
+  }
+
+}
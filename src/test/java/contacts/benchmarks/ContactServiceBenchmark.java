@@ -0,0 +1,96 @@
+package contacts.benchmarks;
+
+import contacts.ContactsApplication;
+import contacts.models.Contact;
+import contacts.repositories.ContactRepository;
+import contacts.services.ContactService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ContactService CRUD against the embedded H2 database from TestConfig, preloaded with the given
+ * number of rows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ContactServiceBenchmark {
+
+  private static final int LOAD_CHUNK_SIZE = 1000;
+
+  @Param({"10000", "100000"})
+  private int rows;
+
+  private ConfigurableApplicationContext context;
+  private ContactService contactService;
+  private long minId;
+  private long maxId;
+
+  @Setup
+  public void setup() {
+    context = new SpringApplicationBuilder(ContactsApplication.class)
+      .web(WebApplicationType.NONE)
+      .run("--spring.profiles.active=test", "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN");
+    contactService = context.getBean(ContactService.class);
+
+    ContactRepository contactRepo = context.getBean(ContactRepository.class);
+    contactRepo.deleteAll();
+    for (int loaded = 0; loaded < rows; loaded += LOAD_CHUNK_SIZE) {
+      List<Contact> chunk = BenchmarkData.contacts(Math.min(LOAD_CHUNK_SIZE, rows - loaded), false);
+      contactRepo.saveAll(chunk);
+    }
+
+    List<Contact> first = contactService.getContactsPage(0, 1);
+    minId = first.get(0).getId();
+    maxId = minId + rows - 1;
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public Contact getContact() {
+    return contactService.getContact(randomId());
+  }
+
+  @Benchmark
+  public List<Contact> getContactsPage() {
+    return contactService.getContactsPage(randomId(), 100);
+  }
+
+  @Benchmark
+  public Contact updateContact() {
+    long id = randomId();
+    return contactService.updateContact(id, BenchmarkData.contact((int) id, id));
+  }
+
+  @Benchmark
+  public void createAndDeleteContact() {
+    Contact created = contactService.createContact(BenchmarkData.contact(rows, null));
+    contactService.deleteContact(created.getId());
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void streamAllContacts(Blackhole blackhole) {
+    contactService.streamAllContacts(blackhole::consume);
+  }
+
+  private long randomId() {
+    return ThreadLocalRandom.current().nextLong(minId, maxId + 1);
+  }
+
+}
@@ -0,0 +1,73 @@
+package contacts.benchmarks;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import contacts.ContactFixture;
+import contacts.models.Contact;
+import contacts.models.contactattributes.Address;
+import contacts.models.contactattributes.Name;
+import contacts.models.contactattributes.Phone;
+import contacts.models.converters.AddressConverter;
+import contacts.models.converters.NameConverter;
+import contacts.models.converters.PhoneArrayConverter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-row cost of the JSON column converters.  The legacy benchmarks reproduce the old converters,
+ * which built a new Gson (and TypeToken) for every column; run with '-prof gc' and compare
+ * gc.alloc.rate.norm to see the allocation per row.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ConverterBenchmark {
+
+  private Contact contact;
+  private String nameColumn;
+  private String addressColumn;
+  private String phoneColumn;
+
+  @Setup
+  public void setup() {
+    contact = ContactFixture.getContactFixture();
+    nameColumn = NameConverter.toDatabaseColumn(contact.getName());
+    addressColumn = AddressConverter.toDatabaseColumn(contact.getAddress());
+    phoneColumn = PhoneArrayConverter.toDatabaseColumn(contact.getPhone());
+  }
+
+  @Benchmark
+  public void writeRow(Blackhole blackhole) {
+    blackhole.consume(NameConverter.toDatabaseColumn(contact.getName()));
+    blackhole.consume(AddressConverter.toDatabaseColumn(contact.getAddress()));
+    blackhole.consume(PhoneArrayConverter.toDatabaseColumn(contact.getPhone()));
+  }
+
+  @Benchmark
+  public void readRow(Blackhole blackhole) {
+    blackhole.consume(NameConverter.fromDatabaseColumn(nameColumn));
+    blackhole.consume(AddressConverter.fromDatabaseColumn(addressColumn));
+    blackhole.consume(PhoneArrayConverter.toJsonArray(phoneColumn));
+  }
+
+  @Benchmark
+  public void legacyWriteRow(Blackhole blackhole) {
+    blackhole.consume(new Gson().toJson(contact.getName()));
+    blackhole.consume(new Gson().toJson(contact.getAddress()));
+    blackhole.consume(new Gson().toJson(contact.getPhone()));
+  }
+
+  @Benchmark
+  public void legacyReadRow(Blackhole blackhole) {
+    blackhole.consume(new Gson().fromJson(nameColumn, Name.class));
+    blackhole.consume(new Gson().fromJson(addressColumn, Address.class));
+    blackhole.consume(new Gson().<List<Phone>>fromJson(phoneColumn, new TypeToken<List<Phone>>(){}.getType()));
+  }
+
+}
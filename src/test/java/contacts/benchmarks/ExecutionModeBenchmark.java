@@ -0,0 +1,194 @@
+package contacts.benchmarks;
+
+import contacts.ContactsApplication;
+import contacts.models.Contact;
+import contacts.repositories.ContactRepository;
+import contacts.services.ContactService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.ClassUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Load test of GET /contacts/{id} over HTTP from 1000 concurrent clients, with handlers on Tomcat's
+ * request threads ("sync", the default) or on the bounded executor of contacts.async.enabled
+ * ("async").  The server runs in-process on H2 with the contact cache off, so every request is a
+ * query; to stand in for MySQL each statement waits dbLatencyMillis and at most poolSize
+ * connections are open, as with the production pool.  Reports throughput and sample-time
+ * percentiles; raise the client count with '-t'.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Threads(1000)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 3, time = 5)
+public class ExecutionModeBenchmark {
+
+  private static final int LOAD_CHUNK_SIZE = 1000;
+
+  @Param({"sync", "async"})
+  private String mode;
+
+  @Param({"10000"})
+  private int rows;
+
+  @Param({"5"})
+  private long dbLatencyMillis;
+
+  @Param({"20"})
+  private int poolSize;
+
+  private final AtomicBoolean dbLatencyEnabled = new AtomicBoolean();
+  private ConfigurableApplicationContext context;
+  private String baseUrl;
+  private long minId;
+
+  /**
+   * Each client's read buffer.
+   */
+  @State(Scope.Thread)
+  public static class Client {
+
+    private final byte[] buffer = new byte[8192];
+
+  }
+
+  @Setup
+  public void setup() {
+    // keep a connection per client alive between requests, rather than the default 5 per host
+    System.setProperty("http.maxConnections", "2000");
+
+    context = new SpringApplicationBuilder(ContactsApplication.class)
+      .initializers(applicationContext -> applicationContext.getBeanFactory().addBeanPostProcessor(slowDatabase()))
+      .run("--spring.profiles.active=test",
+        "--server.port=0",
+        "--contacts.async.enabled=" + "async".equals(mode),
+        "--contacts.async.pool-size=" + poolSize,
+        "--contacts.cache.maximum-size=0",
+        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN");
+    baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/contacts/";
+
+    ContactRepository contactRepo = context.getBean(ContactRepository.class);
+    contactRepo.deleteAll();
+    for (int loaded = 0; loaded < rows; loaded += LOAD_CHUNK_SIZE) {
+      contactRepo.saveAll(BenchmarkData.contacts(Math.min(LOAD_CHUNK_SIZE, rows - loaded), false));
+    }
+    List<Contact> first = context.getBean(ContactService.class).getContactsPage(0, 1);
+    minId = first.get(0).getId();
+
+    dbLatencyEnabled.set(true);
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public int getContact(Client client) throws IOException {
+    URL url = new URL(baseUrl + (minId + ThreadLocalRandom.current().nextInt(rows)));
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    int status = connection.getResponseCode();
+    // drain the body so the connection goes back to the keep-alive cache
+    try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+      while(body != null && body.read(client.buffer) >= 0) {
+        // discard
+      }
+    }
+    return status;
+  }
+
+  /**
+   * Wraps the DataSource so that at most poolSize connections are open and every statement
+   * waits dbLatencyMillis before running, once loading is done.
+   */
+  private BeanPostProcessor slowDatabase() {
+    Semaphore connections = new Semaphore(poolSize, true);
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if(!(bean instanceof DataSource)) {
+          return bean;
+        }
+        return proxy(DataSource.class, bean, (method, target) -> {
+          if(!"getConnection".equals(method.getName())) {
+            return target.get();
+          }
+          connections.acquire();
+          try {
+            return proxy(Connection.class, target.get(), closeReleases(connections));
+          } catch (Exception e) {
+            connections.release();
+            throw e;
+          }
+        });
+      }
+    };
+  }
+
+  private Interceptor closeReleases(Semaphore connections) {
+    AtomicBoolean closed = new AtomicBoolean();
+    return (method, target) -> {
+      if("close".equals(method.getName()) && closed.compareAndSet(false, true)) {
+        connections.release();
+      }
+      Object result = target.get();
+      return result instanceof Statement ? proxy(Statement.class, result, this::delayExecute) : result;
+    };
+  }
+
+  private Object delayExecute(Method method, Invocation target) throws Exception {
+    if(method.getName().startsWith("execute") && dbLatencyEnabled.get()) {
+      Thread.sleep(dbLatencyMillis);
+    }
+    return target.get();
+  }
+
+  private static Object proxy(Class<?> type, Object target, Interceptor interceptor) {
+    // implement everything the target does, so PreparedStatement and the like survive the wrapping
+    List<Class<?>> interfaces = ClassUtils.getAllInterfacesAsSet(target).stream()
+      .filter(type::isAssignableFrom)
+      .collect(Collectors.toList());
+    return Proxy.newProxyInstance(target.getClass().getClassLoader(), interfaces.toArray(new Class<?>[0]), (proxy, method, args) ->
+      interceptor.intercept(method, () -> {
+        try {
+          return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+          throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+      }));
+  }
+
+  private interface Invocation {
+
+    Object get() throws Exception;
+
+  }
+
+  private interface Interceptor {
+
+    Object intercept(Method method, Invocation target) throws Exception;
+
+  }
+
+}
@@ -0,0 +1,159 @@
+package contacts.benchmarks;
+
+import contacts.controllers.ContactController;
+import contacts.controllers.SampledLogger;
+import contacts.exceptions.ContactsRuntimeException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.Appender;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.OutputStreamAppender;
+import org.apache.logging.log4j.core.async.AsyncLoggerContextSelector;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.LoggerConfig;
+import org.apache.logging.log4j.core.selector.ClassLoaderContextSelector;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Time a request thread spends logging an error with its stack trace, at a steady 10,000 errors
+ * a second, while the console drains at a fraction of that rate as it does when stdout backs up.
+ * Logging uses the application's log4j2.xml with loggers that are "sync" (on the calling thread),
+ * "async" (log4j2.component.properties) or "async-full", with a ring buffer small enough to fill
+ * in the first iteration so the queue-full path is measured, where errors, being above the
+ * discard threshold, wait for room rather than being dropped.  Errors are either "all" logged or
+ * "sampled" to 10 a second, as ContactExceptionHandler logs them.  Sample time reports the
+ * percentiles of the log call itself; the wait for the next error's slot is not measured.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LoggingBenchmark {
+
+  private static final int FULL_RING_BUFFER_SIZE = 1024;
+
+  @Param({"sync", "async", "async-full"})
+  private String loggers;
+
+  @Param({"all", "sampled"})
+  private String errors;
+
+  @Param({"10000"})
+  private int errorsPerSecond;
+
+  @Param({"1000000"})
+  private int consoleBytesPerSecond;
+
+  private SlowConsole console;
+  private Logger logger;
+  private SampledLogger sampledLogger;
+  private Exception error;
+  private long intervalNanos;
+  private long nextNanos;
+
+  @Setup
+  public void setup() {
+    // must be set before the first logger is created; system properties override the component properties
+    System.setProperty("log4j2.contextSelector", loggers.startsWith("async")
+      ? AsyncLoggerContextSelector.class.getName()
+      : ClassLoaderContextSelector.class.getName());
+    if("async-full".equals(loggers)) {
+      System.setProperty("log4j2.asyncLoggerRingBufferSize", String.valueOf(FULL_RING_BUFFER_SIZE));
+    }
+
+    console = new SlowConsole(consoleBytesPerSecond);
+    LoggerContext context = (LoggerContext) LogManager.getContext(false);
+    replaceConsole(context.getConfiguration(), console);
+    context.updateLoggers();
+
+    logger = LogManager.getLogger(ContactController.class);
+    sampledLogger = "sampled".equals(errors) ? new SampledLogger(logger, 10) : null;
+    error = new ContactsRuntimeException("Simulated failure", new IllegalStateException("Simulated cause"));
+    intervalNanos = TimeUnit.SECONDS.toNanos(1) / errorsPerSecond;
+    nextNanos = System.nanoTime();
+  }
+
+  @TearDown
+  public void tearDown() {
+    // let anything still queued drain, or shutdown waits on the slow console
+    console.unthrottle();
+  }
+
+  /**
+   * Waits for the next error's slot, outside the measured call.
+   */
+  @Setup(Level.Invocation)
+  public void pace() {
+    nextNanos += intervalNanos;
+    while(System.nanoTime() < nextNanos) {
+      // spin: parking is too coarse for a 100 us interval
+    }
+  }
+
+  @Benchmark
+  public void logError() {
+    if(sampledLogger == null) {
+      logger.error("Encountered an unhandled exception in {}", "ContactController", error);
+    } else {
+      sampledLogger.errorWithStackTrace("Encountered an unhandled exception in {}", "ContactController", error);
+    }
+  }
+
+  private static void replaceConsole(Configuration config, OutputStream target) {
+    Appender consoleAppender = config.getAppender("Console");
+    Appender slowAppender = OutputStreamAppender.createAppender(consoleAppender.getLayout(), null, target, consoleAppender.getName(), false, true);
+    slowAppender.start();
+
+    List<LoggerConfig> loggerConfigs = new ArrayList<>(config.getLoggers().values());
+    loggerConfigs.add(config.getRootLogger());
+    for (LoggerConfig loggerConfig : loggerConfigs) {
+      if(loggerConfig.getAppenders().containsKey(consoleAppender.getName())) {
+        loggerConfig.removeAppender(consoleAppender.getName());
+        loggerConfig.addAppender(slowAppender, null, null);
+      }
+    }
+    consoleAppender.stop();
+  }
+
+  /**
+   * Discards what it is given, taking as long as a console draining at a fixed rate would.
+   */
+  static final class SlowConsole extends OutputStream {
+
+    private final double nanosPerByte;
+    private volatile boolean throttled = true;
+    private long freeAtNanos;
+
+    SlowConsole(int bytesPerSecond) {
+      this.nanosPerByte = (double) TimeUnit.SECONDS.toNanos(1) / bytesPerSecond;
+    }
+
+    void unthrottle() {
+      throttled = false;
+    }
+
+    @Override
+    public void write(int b) {
+      write(null, 0, 1);
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) {
+      if(!throttled) {
+        return;
+      }
+      long now = System.nanoTime();
+      freeAtNanos = Math.max(freeAtNanos, now) + (long) (len * nanosPerByte);
+      LockSupport.parkNanos(freeAtNanos - now);
+    }
+  }
+
+}
@@ -0,0 +1,77 @@
+package contacts.benchmarks;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import contacts.models.Contact;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of a list of contacts, configured the way Spring MVC configures it.
+ * Compares writing the whole list with writing one contact at a time as GET /contacts does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SerializationBenchmark {
+
+  @Param({"10000", "100000"})
+  private int rows;
+
+  private ObjectMapper objectMapper;
+  private List<Contact> contacts;
+
+  @Setup
+  public void setup() {
+    objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    contacts = BenchmarkData.contacts(rows, true);
+  }
+
+  @Benchmark
+  public long serializeList() throws IOException {
+    CountingOutputStream out = new CountingOutputStream();
+    objectMapper.writeValue(out, contacts);
+    return out.count;
+  }
+
+  @Benchmark
+  public long serializeStreamed() throws IOException {
+    CountingOutputStream out = new CountingOutputStream();
+    JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+    generator.writeStartArray();
+    for (Contact contact : contacts) {
+      generator.writeObject(contact);
+    }
+    generator.writeEndArray();
+    generator.flush();
+    return out.count;
+  }
+
+  /**
+   * Discards what is written, keeping only the byte count.
+   */
+  static class CountingOutputStream extends OutputStream {
+
+    long count;
+
+    @Override
+    public void write(int b) {
+      count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      count += len;
+    }
+
+  }
+
+}
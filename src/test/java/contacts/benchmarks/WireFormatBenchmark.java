@@ -0,0 +1,76 @@
+package contacts.benchmarks;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import contacts.models.Contact;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cost of writing GET /contacts in each representation the endpoint can send: JSON or CBOR,
+ * plain or gzipped as the server's response compression does.  Time per op is the serialization
+ * CPU per request; the "wireBytes" counter is the response size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class WireFormatBenchmark {
+
+  @Param({"10000", "100000"})
+  private int rows;
+
+  @Param({"json", "cbor"})
+  private String format;
+
+  @Param({"none", "gzip"})
+  private String compression;
+
+  private ObjectMapper objectMapper;
+  private List<Contact> contacts;
+
+  /**
+   * Bytes written by the last call, reported per op.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Wire {
+
+    public long wireBytes;
+
+  }
+
+  @Setup
+  public void setup() {
+    objectMapper = "cbor".equals(format)
+      ? Jackson2ObjectMapperBuilder.cbor().build()
+      : Jackson2ObjectMapperBuilder.json().build();
+    contacts = BenchmarkData.contacts(rows, true);
+  }
+
+  @Benchmark
+  public long writeContacts(Wire wire) throws IOException {
+    SerializationBenchmark.CountingOutputStream counter = new SerializationBenchmark.CountingOutputStream();
+    OutputStream out = "gzip".equals(compression) ? new GZIPOutputStream(counter, 8192) : counter;
+
+    JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+    generator.writeStartArray();
+    for (Contact contact : contacts) {
+      generator.writeObject(contact);
+    }
+    generator.writeEndArray();
+    generator.close();
+
+    wire.wireBytes = counter.count;
+    return counter.count;
+  }
+
+}
@@ -15,6 +15,7 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import javax.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
+import java.util.Properties;
 
 @Configuration
 @EnableJpaRepositories(basePackages = {"contacts.repositories"})
@@ -44,6 +45,7 @@ public class TestConfig {
     entityManagerFactory.setJpaVendorAdapter(vendorAdaptor);
     entityManagerFactory.setPackagesToScan("contacts.models");
     entityManagerFactory.setDataSource(dataSource());
+    entityManagerFactory.setJpaProperties(jpaProperties());
     return entityManagerFactory;
   }
 
@@ -60,4 +62,10 @@ public class TestConfig {
     return transactionManager;
   }
 
+  private Properties jpaProperties() {
+    Properties properties = new Properties();
+    properties.setProperty("hibernate.hbm2ddl.auto", "create-drop");
+    return properties;
+  }
+
 }
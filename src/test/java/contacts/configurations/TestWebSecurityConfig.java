@@ -1,6 +1,7 @@
 package contacts.configurations;
 
 import contacts.security.ApiKeyAuthFilter;
+import contacts.security.ServiceTokenAuthenticationManager;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -48,18 +49,7 @@ public class TestWebSecurityConfig extends WebSecurityConfigurerAdapter {
   protected void configure(HttpSecurity http) throws Exception {
     ApiKeyAuthFilter filter = new ApiKeyAuthFilter(principleRequestHeader);
 
-    filter.setAuthenticationManager(authentication -> {
-      String serviceToken = (String) authentication.getPrincipal();
-
-      if(serviceToken == null || serviceToken.isEmpty()) {
-        throw new BadCredentialsException("No value given for 'Authorization' header");
-      }
-
-      verifyServiceToken(serviceToken);
-
-      authentication.setAuthenticated(true);
-      return authentication;
-    });
+    filter.setAuthenticationManager(new ServiceTokenAuthenticationManager(this::verifyServiceToken, 1000, 60));
 
     http.antMatcher("/v1/**")
       .csrf().disable()
@@ -0,0 +1,107 @@
+package contacts.controllers;
+
+import com.google.gson.Gson;
+import contacts.ContactFixture;
+import contacts.TestProfile;
+import contacts.exceptions.ContactNotFoundException;
+import contacts.models.Contact;
+import contacts.services.ContactImportService;
+import contacts.services.ContactService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ContactController in the async execution mode, where handlers run on the request executor.
+ */
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(ContactController.class)
+@TestPropertySource(properties = "contacts.async.enabled=true")
+@TestProfile
+@Tag("unit")
+public class ContactControllerAsyncTest {
+
+  private static Contact expectedContact;
+
+  @Autowired
+  private MockMvc mvc;
+
+  @MockBean
+  private ContactService contactService;
+
+  @MockBean
+  private ContactImportService contactImportService;
+
+  @BeforeAll
+  private static void readTestJson() {
+    expectedContact = ContactFixture.getContactFixture();
+  }
+
+  @Test
+  void testGetContactRunsOnRequestExecutor() throws Exception {
+    // given
+    AtomicReference<String> serviceThread = new AtomicReference<>();
+    willAnswer(invocation -> {
+      serviceThread.set(Thread.currentThread().getName());
+      return expectedContact;
+    }).given(contactService).getContact(anyLong());
+
+    // when
+    MvcResult started = mvc
+      .perform(get(String.format("/contacts/%d", expectedContact.getId()))
+        .accept(APPLICATION_JSON)
+        .header("Authorization", "abc123"))
+      .andExpect(request().asyncStarted())
+      .andReturn();
+    MvcResult result = mvc.perform(asyncDispatch(started))
+      .andExpect(status().isOk())
+      .andExpect(header().string("ETag", "\"0\""))
+      .andReturn();
+
+    // then
+    assertThat(serviceThread.get()).startsWith("contacts-request-");
+    assertThat(new Gson().fromJson(result.getResponse().getContentAsString(), Contact.class)).isEqualTo(expectedContact);
+  }
+
+  @Test
+  void testGetContactNotFound() throws Exception {
+    // given
+    given(contactService.getContact(anyLong())).willThrow(ContactNotFoundException.class);
+
+    // when
+    MvcResult started = mvc
+      .perform(get("/contacts/1")
+        .accept(APPLICATION_JSON)
+        .header("Authorization", "abc123"))
+      .andExpect(request().asyncStarted())
+      .andReturn();
+
+    // then
+    mvc.perform(asyncDispatch(started))
+      .andExpect(status().isNotFound())
+      .andExpect(content().string("{\"status\":404,\"message\":\"Contact not found\",\"url\":\"/contacts/1\",\"params\":{}}"));
+  }
+
+}
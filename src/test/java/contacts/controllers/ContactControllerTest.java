@@ -1,12 +1,24 @@
 package contacts.controllers;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 import contacts.ContactFixture;
 import contacts.TestProfile;
 import contacts.exceptions.ContactAlreadyExistsException;
 import contacts.exceptions.ContactNotFoundException;
+import contacts.exceptions.ContactVersionConflictException;
+import contacts.models.BatchItemResult;
 import contacts.models.Contact;
+import contacts.models.ContactChange;
+import contacts.models.ContactChanges;
+import contacts.models.ContactListVersion;
+import contacts.models.ContactSearchCriteria;
+import contacts.models.ContactSuggestion;
+import contacts.models.ImportSummary;
+import contacts.services.ContactImportService;
 import contacts.services.ContactService;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,27 +27,41 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.mockito.ArgumentCaptor;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.RequestBuilder;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.time.Instant;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.http.MediaType.APPLICATION_JSON_UTF8;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(SpringExtension.class)
@@ -53,6 +79,9 @@ public class ContactControllerTest {
   @MockBean
   private ContactService contactService;
 
+  @MockBean
+  private ContactImportService contactImportService;
+
   @BeforeAll
   private static void readTestJson() {
     expectedContacts = ContactFixture.getContactsListFixture();
@@ -68,16 +97,28 @@ public class ContactControllerTest {
   @Test
   void testGetAllContacts() throws Exception {
     // given
-    given(contactService.getAllContacts()).willReturn(expectedContacts);
+    given(contactService.getContactListVersion()).willReturn(new ContactListVersion(5, Instant.ofEpochMilli(1000)));
+    AtomicReference<String> exportThread = new AtomicReference<>();
+    willAnswer(invocation -> {
+      exportThread.set(Thread.currentThread().getName());
+      Consumer<Contact> consumer = invocation.getArgument(0);
+      expectedContacts.forEach(consumer);
+      return null;
+    }).given(contactService).streamAllContacts(any());
 
     // when
-    MvcResult result = mvc
+    MvcResult asyncResult = mvc
       .perform(get("/contacts")
         .accept(APPLICATION_JSON)
-        .header("Authorization", "abc123")).andReturn();
+        .header("Authorization", "abc123"))
+      .andExpect(request().asyncStarted())
+      .andReturn();
+    MvcResult result = mvc.perform(asyncDispatch(asyncResult)).andReturn();
 
     // then
-    then(contactService).should().getAllContacts();
+    then(contactService).should().streamAllContacts(any());
+    assertThat(asyncResult.getResponse().getHeader("ETag")).isEqualTo("\"5\"");
+    assertThat(exportThread.get()).startsWith("contacts-export-");
 
     List<Contact> returnedContacts = new Gson().fromJson(
       result.getResponse().getContentAsString(),
@@ -87,6 +128,117 @@ public class ContactControllerTest {
     assertThat(returnedContacts).isEqualTo(expectedContacts);
   }
 
+  @Test
+  void testGetContactsPage() throws Exception {
+    // given
+    given(contactService.getContactsPage(0L, 2)).willReturn(expectedContacts.subList(0, 2));
+
+    // when
+    MvcResult result = mvc
+      .perform(get("/contacts?after=0&limit=2")
+        .accept(APPLICATION_JSON)
+        .header("Authorization", "abc123")).andReturn();
+
+    // then
+    then(contactService).should().getContactsPage(0L, 2);
+
+    List<Contact> returnedContacts = new Gson().fromJson(
+      result.getResponse().getContentAsString(),
+      new TypeToken<List<Contact>>(){}.getType()
+    );
+
+    assertThat(returnedContacts).isEqualTo(expectedContacts.subList(0, 2));
+    assertThat(result.getResponse().getHeader("X-Next-Cursor"))
+      .isEqualTo(String.valueOf(expectedContacts.get(1).getId()));
+  }
+
+  @Test
+  void testSearchContacts() throws Exception {
+    // given
+    given(contactService.searchContacts(any(ContactSearchCriteria.class), eq(0), eq(2), eq("lastName"), eq(Sort.Direction.DESC)))
+      .willReturn(new PageImpl<>(expectedContacts.subList(1, 3), PageRequest.of(0, 2), 5));
+
+    // when
+    MvcResult result = mvc
+      .perform(get("/contacts/search?state=Virginia&lastNamePrefix=M&size=2&sort=lastName&direction=DESC")
+        .accept(APPLICATION_JSON)
+        .header("Authorization", "abc123")).andReturn();
+
+    // then
+    ArgumentCaptor<ContactSearchCriteria> criteria = ArgumentCaptor.forClass(ContactSearchCriteria.class);
+    then(contactService).should().searchContacts(criteria.capture(), eq(0), eq(2), eq("lastName"), eq(Sort.Direction.DESC));
+    assertThat(criteria.getValue().state).isEqualTo("Virginia");
+    assertThat(criteria.getValue().lastNamePrefix).isEqualTo("M");
+    assertThat(criteria.getValue().city).isNull();
+
+    List<Contact> returnedContacts = new Gson().fromJson(
+      result.getResponse().getContentAsString(),
+      new TypeToken<List<Contact>>(){}.getType()
+    );
+
+    assertThat(returnedContacts).isEqualTo(expectedContacts.subList(1, 3));
+    assertThat(result.getResponse().getHeader("X-Total-Count")).isEqualTo("5");
+  }
+
+  @Test
+  void testSuggestContacts() throws Exception {
+    // given
+    given(contactService.suggestContacts("tim", 10))
+      .willReturn(Collections.singletonList(new ContactSuggestion(3L, "Timothy Timmerson", "tim.tom@website.gov")));
+
+    // when
+    MvcResult result = mvc
+      .perform(get("/contacts/suggest?q=tim")
+        .accept(APPLICATION_JSON)
+        .header("Authorization", "abc123")).andReturn();
+
+    // then
+    then(contactService).should().suggestContacts("tim", 10);
+    assertThat(result.getResponse().getContentAsString())
+      .isEqualTo("[{\"id\":3,\"name\":\"Timothy Timmerson\",\"email\":\"tim.tom@website.gov\"}]");
+  }
+
+  @Test
+  void testGetContactsByPhone() throws Exception {
+    // given
+    given(contactService.getContactsByPhone("302.611.9148")).willReturn(expectedContacts.subList(0, 1));
+
+    // when
+    MvcResult result = mvc
+      .perform(get("/contacts/by-phone/302.611.9148")
+        .accept(APPLICATION_JSON)
+        .header("Authorization", "abc123")).andReturn();
+
+    // then
+    then(contactService).should().getContactsByPhone("302.611.9148");
+
+    List<Contact> returnedContacts = new Gson().fromJson(
+      result.getResponse().getContentAsString(),
+      new TypeToken<List<Contact>>(){}.getType()
+    );
+
+    assertThat(returnedContacts).isEqualTo(expectedContacts.subList(0, 1));
+  }
+
+  @Test
+  void testGetChanges() throws Exception {
+    // given
+    ContactChange deleted = new ContactChange(ContactChange.Type.DELETE, 4L, Instant.ofEpochMilli(2000), null);
+    given(contactService.getChanges("1000-3", 100))
+      .willReturn(new ContactChanges(Collections.singletonList(deleted), "2000-4", false));
+
+    // when
+    MvcResult result = mvc
+      .perform(get("/contacts/changes?since=1000-3")
+        .accept(APPLICATION_JSON)
+        .header("Authorization", "abc123")).andReturn();
+
+    // then
+    then(contactService).should().getChanges("1000-3", 100);
+    assertThat(result.getResponse().getContentAsString())
+      .contains("\"type\":\"DELETE\"", "\"id\":4", "\"watermark\":\"2000-4\"", "\"more\":false");
+  }
+
   @Test
   void testCreateContact() throws Exception {
     expectedContact.setId(999L); //make the id something new
@@ -114,12 +266,55 @@ public class ContactControllerTest {
     assertThat(returnedContact).isEqualTo(expectedContact);
   }
 
+  @Test
+  void testCreateContacts() throws Exception {
+    // given
+    List<BatchItemResult> expectedResults = Collections.singletonList(new BatchItemResult(0, 999L, 200, null));
+    given(contactService.createContacts(anyList())).willReturn(expectedResults);
+
+    //when
+    RequestBuilder requestBuilder =
+      post("/contacts/batch")
+        .header("Authorization", "abc123")
+        .accept(APPLICATION_JSON_UTF8)
+        .contentType(APPLICATION_JSON_UTF8)
+        .content(new Gson().toJson(Collections.singletonList(expectedContact)));
+
+    ResultActions resultActions = mvc.perform(requestBuilder);
+
+    //then
+    then(contactService).should().createContacts(Collections.singletonList(expectedContact));
+
+    resultActions.andExpect(status().isOk());
+    resultActions.andExpect(content().string("[{\"index\":0,\"id\":999,\"status\":200,\"message\":null}]"));
+  }
+
+  @Test
+  void testImportContacts() throws Exception {
+    // given
+    given(contactImportService.importContacts(any())).willReturn(new ImportSummary(3, 0, Collections.emptyList()));
+
+    //when
+    ResultActions resultActions = mvc.perform(
+      post("/contacts/import")
+        .header("Authorization", "abc123")
+        .accept(APPLICATION_JSON_UTF8)
+        .contentType("application/x-ndjson")
+        .content(new Gson().toJson(expectedContact) + "\n"));
+
+    //then
+    then(contactImportService).should().importContacts(any());
+
+    resultActions.andExpect(status().isOk());
+    resultActions.andExpect(content().string("{\"accepted\":3,\"rejected\":0,\"rejections\":[]}"));
+  }
+
   @Test
   void testUpdateContact() throws Exception {
     expectedContact.setEmail("newEmail@email.gov");
     
     // given
-    given(contactService.updateContact(anyLong(), any(Contact.class))).willReturn(expectedContact);
+    given(contactService.updateContact(anyLong(), any(Contact.class), anyLong())).willReturn(expectedContact);
 
     //when
     RequestBuilder requestBuilder =
@@ -136,7 +331,7 @@ public class ContactControllerTest {
     );
 
     //then
-    then(contactService).should().updateContact(expectedContact.getId(), expectedContact);
+    then(contactService).should().updateContact(expectedContact.getId(), expectedContact, ContactService.ANY_VERSION);
     
     assertThat(returnedContact).isEqualTo(expectedContact);
   }
@@ -194,10 +389,104 @@ public class ContactControllerTest {
     resultActions.andExpect(content().string("{\"status\":400,\"message\":\"Contact already exists\",\"url\":\"/contacts\",\"params\":{}}"));
   }
 
+  @Test
+  void testGetAllContactsNotModified() throws Exception {
+    // given
+    ContactListVersion listVersion = new ContactListVersion(5, Instant.ofEpochMilli(1000));
+    given(contactService.getContactListVersion()).willReturn(listVersion);
+
+    // when
+    MvcResult result = mvc
+      .perform(get("/contacts")
+        .accept(APPLICATION_JSON)
+        .header("Authorization", "abc123")
+        .header("If-None-Match", listVersion.etag())).andReturn();
+
+    // then
+    assertThat(result.getResponse().getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+    assertThat(result.getResponse().getContentAsString()).isEmpty();
+    then(contactService).should(never()).streamAllContacts(any());
+  }
+
+  @Test
+  void testGetContactNotModified() throws Exception {
+    // given
+    expectedContact.setVersion(7);
+    given(contactService.getContact(anyLong())).willReturn(expectedContact);
+
+    // when
+    MvcResult modified = mvc
+      .perform(get(String.format("/contacts/%d", expectedContact.getId()))
+        .accept(APPLICATION_JSON)
+        .header("Authorization", "abc123")
+        .header("If-None-Match", "\"6\"")).andReturn();
+    MvcResult notModified = mvc
+      .perform(get(String.format("/contacts/%d", expectedContact.getId()))
+        .accept(APPLICATION_JSON)
+        .header("Authorization", "abc123")
+        .header("If-None-Match", "\"7\"")).andReturn();
+
+    // then
+    assertThat(modified.getResponse().getStatus()).isEqualTo(HttpStatus.OK.value());
+    assertThat(modified.getResponse().getHeader("ETag")).isEqualTo("\"7\"");
+    assertThat(notModified.getResponse().getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+  }
+
+  @Test
+  void testGetContactAsCbor() throws Exception {
+    // given
+    expectedContact.setVersion(7);
+    given(contactService.getContact(anyLong())).willReturn(expectedContact);
+
+    // when
+    MvcResult result = mvc
+      .perform(get(String.format("/contacts/%d", expectedContact.getId()))
+        .accept(ContactController.APPLICATION_CBOR, APPLICATION_JSON)
+        .header("Authorization", "abc123")).andReturn();
+
+    // then
+    assertThat(MediaType.valueOf(result.getResponse().getContentType())
+      .isCompatibleWith(ContactController.APPLICATION_CBOR)).isTrue();
+    assertThat(result.getResponse().getHeader("ETag")).isEqualTo("\"7+cbor\"");
+    assertThat(result.getResponse().getHeader("Vary")).isEqualTo("Accept");
+
+    JsonNode returnedContact = new ObjectMapper(new CBORFactory())
+      .readTree(result.getResponse().getContentAsByteArray());
+    assertThat(returnedContact.toString()).isEqualTo(new ObjectMapper().writeValueAsString(expectedContact));
+  }
+
+  @Test
+  void testPrefersCbor() {
+    assertThat(ContactController.prefersCbor("application/cbor")).isTrue();
+    assertThat(ContactController.prefersCbor("application/json;q=0.5, application/cbor")).isTrue();
+    assertThat(ContactController.prefersCbor("application/json, application/cbor")).isFalse();
+    assertThat(ContactController.prefersCbor("*/*")).isFalse();
+    assertThat(ContactController.prefersCbor(null)).isFalse();
+    assertThat(ContactController.prefersCbor("not a media type")).isFalse();
+  }
+
+  @Test
+  void testUpdateContactWithStaleIfMatch() throws Exception {
+    // given
+    given(contactService.updateContact(anyLong(), any(Contact.class), eq(4L))).willThrow(ContactVersionConflictException.class);
+
+    // when
+    ResultActions resultActions = mvc.perform(
+      put(String.format("/contacts/%d", expectedContact.getId()))
+        .accept(APPLICATION_JSON_UTF8)
+        .contentType(APPLICATION_JSON_UTF8)
+        .header("Authorization", "abc123")
+        .header("If-Match", "\"4\"")
+        .content(new Gson().toJson(expectedContact))
+    );
+
+    resultActions.andExpect(status().isPreconditionFailed());
+  }
+
   @Test
   void testUpdateContactThrowsContactNotFoundException() throws Exception {
     // given
-    given(contactService.updateContact(anyLong(), any(Contact.class))).willThrow(ContactNotFoundException.class);
+    given(contactService.updateContact(anyLong(), any(Contact.class), anyLong())).willThrow(ContactNotFoundException.class);
 
     // when
     ResultActions resultActions = mvc.perform(
@@ -230,4 +519,53 @@ public class ContactControllerTest {
     resultActions.andExpect(content().string("{\"status\":404,\"message\":\"Contact not found\",\"url\":\"/contacts/1\",\"params\":{}}"));
   }
 
+  @Test
+  void testGetContactWithMalformedIdIsRejected() throws Exception {
+    // when
+    ResultActions resultActions = mvc.perform(
+      get("/contacts/abc")
+        .accept(APPLICATION_JSON_UTF8)
+        .header("Authorization", "abc123")
+    );
+
+    // then
+    resultActions.andExpect(status().isBadRequest());
+    resultActions.andExpect(content().contentType(APPLICATION_JSON_UTF8));
+    resultActions.andExpect(content().string("{\"status\":400,\"message\":\"Invalid value for 'id'\",\"url\":\"/contacts/abc\",\"params\":{}}"));
+    then(contactService).should(never()).getContact(anyLong());
+  }
+
+  @Test
+  void testGetContactWithUnassignedIdIsNotFound() throws Exception {
+    // when
+    ResultActions resultActions = mvc.perform(
+      get("/contacts/0")
+        .accept(APPLICATION_JSON_UTF8)
+        .header("Authorization", "abc123")
+    );
+
+    // then
+    resultActions.andExpect(status().isNotFound());
+    resultActions.andExpect(content().string("{\"status\":404,\"message\":\"Contact not found\",\"url\":\"/contacts/0\",\"params\":{}}"));
+    then(contactService).should(never()).getContact(anyLong());
+  }
+
+  @Test
+  void testGetContactNotFoundEchoesParams() throws Exception {
+    // given
+    given(contactService.getContact(anyLong())).willThrow(ContactNotFoundException.class);
+
+    // when
+    ResultActions resultActions = mvc.perform(
+      get("/contacts/1")
+        .param("fields", "name")
+        .accept(APPLICATION_JSON_UTF8)
+        .header("Authorization", "abc123")
+    );
+
+    // then
+    resultActions.andExpect(status().isNotFound());
+    resultActions.andExpect(content().string("{\"status\":404,\"message\":\"Contact not found\",\"url\":\"/contacts/1\",\"params\":{\"fields\":[\"name\"]}}"));
+  }
+
 }
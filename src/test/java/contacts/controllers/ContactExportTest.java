@@ -0,0 +1,69 @@
+package contacts.controllers;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import contacts.ContactFixture;
+import contacts.TestProfile;
+import contacts.models.Contact;
+import contacts.models.ContactListVersion;
+import contacts.services.ContactService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+
+/**
+ * The export over a real connector, where the container enforces async timeouts.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+  properties = "spring.mvc.async.request-timeout=100")
+@Tag("functional")
+@TestProfile
+public class ContactExportTest {
+
+  @Autowired
+  private TestRestTemplate restTemplate;
+
+  @MockBean
+  private ContactService contactService;
+
+  @Test
+  void testExportStreamsPastAsyncTimeout() {
+    // given
+    List<Contact> contacts = ContactFixture.getContactsListFixture();
+    given(contactService.getContactListVersion()).willReturn(new ContactListVersion(5, Instant.ofEpochMilli(1000)));
+    willAnswer(invocation -> {
+      Consumer<Contact> consumer = invocation.getArgument(0);
+      for(Contact contact : contacts) {
+        Thread.sleep(200);
+        consumer.accept(contact);
+      }
+      return null;
+    }).given(contactService).streamAllContacts(any());
+
+    // when
+    ResponseEntity<String> response = restTemplate.getForEntity("/contacts", String.class);
+
+    // then
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    List<Contact> exported = new Gson().fromJson(response.getBody(), new TypeToken<List<Contact>>() {}.getType());
+    assertThat(exported).isEqualTo(contacts);
+  }
+
+}
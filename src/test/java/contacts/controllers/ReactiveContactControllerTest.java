@@ -0,0 +1,160 @@
+package contacts.controllers;
+
+import com.google.gson.Gson;
+import contacts.ContactFixture;
+import contacts.TestProfile;
+import contacts.configurations.ReactiveConfig;
+import contacts.models.Contact;
+import contacts.repositories.ReactiveContactRepository;
+import contacts.services.ContactService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_STREAM_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(ReactiveContactController.class)
+@Import(ReactiveConfig.class)
+@TestProfile
+@Tag("unit")
+public class ReactiveContactControllerTest {
+
+  @Autowired
+  private MockMvc mvc;
+
+  @MockBean
+  private ReactiveContactRepository reactiveContactRepo;
+
+  @MockBean
+  private ContactService contactService;
+
+  @Autowired
+  private RequestMappingHandlerAdapter handlerAdapter;
+
+  @Test
+  void testGetAllContactsStreamsLines() throws Exception {
+    // given
+    List<Contact> contacts = ContactFixture.getContactsListFixture();
+    given(reactiveContactRepo.findAllAfter(0)).willReturn(Flux.fromIterable(contacts));
+
+    // when
+    MvcResult result = mvc.perform(dispatched(get("/reactive/contacts").accept(APPLICATION_STREAM_JSON)))
+      .andExpect(status().isOk())
+      .andExpect(content().contentTypeCompatibleWith(APPLICATION_STREAM_JSON))
+      .andReturn();
+
+    // then
+    String[] lines = result.getResponse().getContentAsString().split("\n");
+    assertThat(lines).hasSize(contacts.size());
+    for (int i = 0; i < lines.length; i++) {
+      assertThat(new Gson().fromJson(lines[i], Contact.class)).isEqualTo(contacts.get(i));
+    }
+  }
+
+  @Test
+  void testStreamsAreWrittenOnBoundedExecutorWhenAsyncModeIsOff() {
+    Object taskExecutor = ReflectionTestUtils.getField(handlerAdapter, "taskExecutor");
+    assertThat(taskExecutor).isInstanceOf(ThreadPoolTaskExecutor.class);
+    assertThat(((ThreadPoolTaskExecutor) taskExecutor).getMaxPoolSize()).isEqualTo(20);
+  }
+
+  @Test
+  void testGetContact() throws Exception {
+    // given
+    Contact contact = ContactFixture.getContactFixture();
+    given(reactiveContactRepo.findById(1)).willReturn(Mono.just(contact));
+
+    // when
+    MvcResult result = mvc.perform(dispatched(get("/reactive/contacts/1").accept(APPLICATION_JSON)))
+      .andExpect(status().isOk())
+      .andReturn();
+
+    // then
+    assertThat(new Gson().fromJson(result.getResponse().getContentAsString(), Contact.class)).isEqualTo(contact);
+  }
+
+  @Test
+  void testGetContactNotFound() throws Exception {
+    // given
+    given(reactiveContactRepo.findById(anyLong())).willReturn(Mono.empty());
+
+    // when, then
+    mvc.perform(dispatched(get("/reactive/contacts/1").accept(APPLICATION_JSON)))
+      .andExpect(status().isNotFound())
+      .andExpect(content().string("{\"status\":404,\"message\":\"Contact not found\",\"url\":\"/reactive/contacts/1\",\"params\":{}}"));
+  }
+
+  @Test
+  void testGetContactWhenSchedulerIsFull() throws Exception {
+    // given
+    given(reactiveContactRepo.findById(anyLong())).willReturn(Mono.error(new RejectedExecutionException()));
+
+    // when, then
+    mvc.perform(dispatched(get("/reactive/contacts/1").accept(APPLICATION_JSON)))
+      .andExpect(status().isServiceUnavailable());
+  }
+
+  @Test
+  void testCreateContact() throws Exception {
+    // given
+    Contact contact = ContactFixture.getContactFixture();
+    given(contactService.createContact(any(Contact.class))).willReturn(contact);
+
+    // when
+    MvcResult result = mvc.perform(dispatched(post("/reactive/contacts")
+      .contentType(APPLICATION_JSON)
+      .content(new Gson().toJson(contact))))
+      .andExpect(status().isOk())
+      .andReturn();
+
+    // then
+    assertThat(new Gson().fromJson(result.getResponse().getContentAsString(), Contact.class)).isEqualTo(contact);
+  }
+
+  @Test
+  void testDeleteContact() throws Exception {
+    mvc.perform(dispatched(delete("/reactive/contacts/1")))
+      .andExpect(status().isOk());
+
+    then(contactService).should().deleteContact(eq(1L));
+  }
+
+  private RequestBuilder dispatched(RequestBuilder requestBuilder) throws Exception {
+    MvcResult started = mvc.perform(requestBuilder)
+      .andExpect(request().asyncStarted())
+      .andReturn();
+    return asyncDispatch(started);
+  }
+
+}
@@ -0,0 +1,26 @@
+package contacts.exceptions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("unit")
+class CachedErrorBodyTest {
+
+  @Test
+  void testBodyMatchesJacksonOutput() throws Exception {
+    ObjectMapper objectMapper = new ObjectMapper();
+    CachedErrorBody body = new CachedErrorBody(404, "Contact \"not\" found");
+
+    for (String url : new String[]{"/contacts/1", "/contacts/\"quoted\"\\", "/contacts/caf\u00e9", "/contacts/\u0001"}) {
+      String expected = objectMapper.writeValueAsString(new ErrorInfo(404, "Contact \"not\" found", url, Collections.emptyMap()));
+      assertThat(new String(body.render(url), StandardCharsets.UTF_8)).isEqualTo(expected);
+    }
+  }
+
+}
@@ -0,0 +1,30 @@
+package contacts.models.contactattributes;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("unit")
+class PhoneNumbersTest {
+
+  @Test
+  void testNormalizeNationalNumbers() {
+    assertThat(PhoneNumbers.normalize("302-611-9148")).isEqualTo("+13026119148");
+    assertThat(PhoneNumbers.normalize("(302) 611.9148")).isEqualTo("+13026119148");
+    assertThat(PhoneNumbers.normalize("1 302 611 9148")).isEqualTo("+13026119148");
+  }
+
+  @Test
+  void testNormalizeInternationalNumbers() {
+    assertThat(PhoneNumbers.normalize("+44 20 7946 0958")).isEqualTo("+442079460958");
+    assertThat(PhoneNumbers.normalize("+1 (302) 611-9148")).isEqualTo("+13026119148");
+  }
+
+  @Test
+  void testNormalizeWithoutDigits() {
+    assertThat(PhoneNumbers.normalize("n/a")).isNull();
+    assertThat(PhoneNumbers.normalize(null)).isNull();
+  }
+
+}
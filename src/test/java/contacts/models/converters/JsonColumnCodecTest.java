@@ -0,0 +1,70 @@
+package contacts.models.converters;
+
+import com.google.gson.Gson;
+import contacts.ContactFixture;
+import contacts.exceptions.ContactsRuntimeException;
+import contacts.models.Contact;
+import contacts.models.contactattributes.Address;
+import contacts.models.contactattributes.Name;
+import contacts.models.contactattributes.Phone;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("unit")
+class JsonColumnCodecTest {
+
+  private final List<Contact> contacts = ContactFixture.getContactsListFixture();
+
+  @Test
+  void testColumnsMatchGsonOutput() {
+    Gson gson = new Gson();
+
+    for (Contact contact : contacts) {
+      assertThat(NameConverter.toDatabaseColumn(contact.getName())).isEqualTo(gson.toJson(contact.getName()));
+      assertThat(AddressConverter.toDatabaseColumn(contact.getAddress())).isEqualTo(gson.toJson(contact.getAddress()));
+      assertThat(PhoneArrayConverter.toDatabaseColumn(contact.getPhone())).isEqualTo(gson.toJson(contact.getPhone()));
+    }
+  }
+
+  @Test
+  void testHtmlCharactersEscapedAsGsonDoes() {
+    Gson gson = new Gson();
+    Name name = new Name("<b>", "O'Neil", "Smith & Sons");
+    Address address = new Address();
+    address.setStreet("1 A=B Street <rear>");
+    address.setState("VA");
+    address.setZip("23220");
+    Phone phone = new Phone();
+    phone.setNumber("555-0100 & 'ext' <2>");
+    List<Phone> phones = Collections.singletonList(phone);
+
+    assertThat(NameConverter.toDatabaseColumn(name)).isEqualTo(gson.toJson(name)).contains("\\u003cb\\u003e");
+    assertThat(AddressConverter.toDatabaseColumn(address)).isEqualTo(gson.toJson(address));
+    assertThat(PhoneArrayConverter.toDatabaseColumn(phones)).isEqualTo(gson.toJson(phones));
+    assertThat(NameConverter.fromDatabaseColumn(NameConverter.toDatabaseColumn(name))).isEqualTo(name);
+  }
+
+  @Test
+  void testColumnsRoundTrip() {
+    for (Contact contact : contacts) {
+      assertThat(NameConverter.fromDatabaseColumn(NameConverter.toDatabaseColumn(contact.getName())))
+        .isEqualTo(contact.getName());
+      assertThat(AddressConverter.fromDatabaseColumn(AddressConverter.toDatabaseColumn(contact.getAddress())))
+        .isEqualTo(contact.getAddress());
+      assertThat(PhoneArrayConverter.toJsonArray(PhoneArrayConverter.toDatabaseColumn(contact.getPhone())))
+        .isEqualTo(contact.getPhone());
+    }
+  }
+
+  @Test
+  void testMalformedPhoneColumnThrows() {
+    Assertions.assertThrows(ContactsRuntimeException.class, () -> PhoneArrayConverter.toJsonArray("{\"number\":"));
+  }
+
+}
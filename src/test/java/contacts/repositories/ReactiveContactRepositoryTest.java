@@ -0,0 +1,97 @@
+package contacts.repositories;
+
+import contacts.ContactFixture;
+import contacts.TestProfile;
+import contacts.models.Contact;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import reactor.core.scheduler.Scheduler;
+import reactor.test.StepVerifier;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Tag("functional")
+@TestProfile
+class ReactiveContactRepositoryTest {
+
+  @Autowired
+  private ContactRepository contactRepo;
+
+  @Autowired
+  private ReactiveContactRepository reactiveContactRepo;
+
+  @Autowired
+  @Qualifier(ReactiveContactRepository.JDBC_SCHEDULER)
+  private Scheduler jdbcScheduler;
+
+  private List<Contact> contacts;
+
+  @BeforeEach
+  private void clearAndLoadTable() {
+    contactRepo.deleteAll();
+    contacts = contactRepo.saveAll(ContactFixture.getContactsListFixture());
+  }
+
+  @Test
+  void testFindById() {
+    Contact contact = contacts.get(0);
+
+    StepVerifier.create(reactiveContactRepo.findById(contact.getId()))
+      .expectNext(contact)
+      .verifyComplete();
+  }
+
+  @Test
+  void testFindByIdNotFound() {
+    StepVerifier.create(reactiveContactRepo.findById(contacts.get(2).getId() + 1))
+      .verifyComplete();
+  }
+
+  @Test
+  void testFindAllAfterAcrossPages() {
+    ReactiveContactRepository smallPages = new ReactiveContactRepository(contactRepo, jdbcScheduler, 2);
+
+    StepVerifier.create(smallPages.findAllAfter(0))
+      .expectNext(contacts.get(0), contacts.get(1), contacts.get(2))
+      .verifyComplete();
+    StepVerifier.create(smallPages.findAllAfter(contacts.get(0).getId()))
+      .expectNext(contacts.get(1), contacts.get(2))
+      .verifyComplete();
+  }
+
+  @Test
+  void testFindAllAfterReadsPagesOnDemand() {
+    // given
+    ContactRepository pagedRepo = mock(ContactRepository.class);
+    given(pagedRepo.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class)))
+      .willReturn(contacts.subList(0, 2), contacts.subList(0, 2), Collections.emptyList());
+    ReactiveContactRepository smallPages = new ReactiveContactRepository(pagedRepo, jdbcScheduler, 2);
+
+    // when, then
+    StepVerifier.create(smallPages.findAllAfter(0), 1)
+      .expectNext(contacts.get(0))
+      .then(() -> then(pagedRepo).should(times(1)).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class)))
+      .thenRequest(Long.MAX_VALUE)
+      .expectNextCount(3)
+      .verifyComplete();
+    then(pagedRepo).should(times(3)).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class));
+  }
+
+}
@@ -0,0 +1,97 @@
+package contacts.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("unit")
+class ClientRateLimitFilterTest {
+
+  @AfterEach
+  void clearSecurityContext() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void testTokenBucketAllowsBurstThenRefills() {
+    ClientThrottle throttle = new ClientThrottle(10, 3, 1, 0);
+
+    assertThat(throttle.tryAcquireRate(0)).isZero();
+    assertThat(throttle.tryAcquireRate(0)).isZero();
+    assertThat(throttle.tryAcquireRate(0)).isZero();
+    assertThat(throttle.tryAcquireRate(0)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+    assertThat(throttle.tryAcquireRate(TimeUnit.MILLISECONDS.toNanos(100))).isZero();
+  }
+
+  @Test
+  void testRejectsClientOverRateWith429() throws Exception {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    ClientRateLimitFilter filter = new ClientRateLimitFilter(
+      client -> new ClientThrottle(0.5, 1, 10, System.nanoTime()), registry, new ObjectMapper());
+    SecurityContextHolder.getContext().setAuthentication(
+      new PreAuthenticatedAuthenticationToken("contact", "n/a", Collections.emptyList()));
+
+    MockHttpServletResponse first = new MockHttpServletResponse();
+    filter.doFilter(new MockHttpServletRequest("GET", "/v1/contacts"), first, new MockFilterChain());
+    MockHttpServletResponse second = new MockHttpServletResponse();
+    filter.doFilter(new MockHttpServletRequest("GET", "/v1/contacts"), second, new MockFilterChain());
+
+    assertThat(first.getStatus()).isEqualTo(200);
+    assertThat(second.getStatus()).isEqualTo(429);
+    assertThat(second.getHeader("Retry-After")).isEqualTo("2");
+    assertThat(second.getContentAsString()).contains("\"status\":429");
+    assertThat(registry.get("contacts.throttled").tag("client", "contact").tag("reason", "rate").counter().count())
+      .isEqualTo(1);
+  }
+
+  @Test
+  void testRejectsClientOverConcurrencyCap() throws Exception {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    ClientRateLimitFilter filter = new ClientRateLimitFilter(
+      client -> new ClientThrottle(1000, 1000, 1, System.nanoTime()), registry, new ObjectMapper());
+    SecurityContextHolder.getContext().setAuthentication(
+      new PreAuthenticatedAuthenticationToken("contact", "n/a", Collections.emptyList()));
+
+    MockHttpServletResponse nested = new MockHttpServletResponse();
+    // the second request arrives while the first is still in the chain
+    filter.doFilter(new MockHttpServletRequest("GET", "/v1/contacts"), new MockHttpServletResponse(),
+      (request, response) -> filter.doFilter(new MockHttpServletRequest("GET", "/v1/contacts"), nested, new MockFilterChain()));
+
+    assertThat(nested.getStatus()).isEqualTo(429);
+    assertThat(registry.get("contacts.throttled").tag("reason", "concurrency").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void testAsyncRequestHoldsConcurrencyPermitUntilComplete() throws Exception {
+    ClientRateLimitFilter filter = new ClientRateLimitFilter(
+      client -> new ClientThrottle(1000, 1000, 1, System.nanoTime()), new SimpleMeterRegistry(), new ObjectMapper());
+    SecurityContextHolder.getContext().setAuthentication(
+      new PreAuthenticatedAuthenticationToken("contact", "n/a", Collections.emptyList()));
+
+    MockHttpServletRequest asyncRequest = new MockHttpServletRequest("GET", "/v1/contacts");
+    asyncRequest.setAsyncSupported(true);
+    filter.doFilter(asyncRequest, new MockHttpServletResponse(), (request, response) -> request.startAsync());
+    MockHttpServletResponse whileOpen = new MockHttpServletResponse();
+    filter.doFilter(new MockHttpServletRequest("GET", "/v1/contacts"), whileOpen, new MockFilterChain());
+
+    asyncRequest.getAsyncContext().complete();
+    MockHttpServletResponse afterComplete = new MockHttpServletResponse();
+    filter.doFilter(new MockHttpServletRequest("GET", "/v1/contacts"), afterComplete, new MockFilterChain());
+
+    assertThat(whileOpen.getStatus()).isEqualTo(429);
+    assertThat(afterComplete.getStatus()).isEqualTo(200);
+  }
+
+}
@@ -0,0 +1,42 @@
+package contacts.security;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Tag("unit")
+class ServiceTokenAuthenticationManagerTest {
+
+  @Test
+  void testAuthenticateResolvesClientNameOnce() {
+    AtomicInteger verifications = new AtomicInteger();
+    ServiceTokenAuthenticationManager manager = new ServiceTokenAuthenticationManager(token -> {
+      verifications.incrementAndGet();
+      if(!"abc123".equals(token)) {
+        throw new BadCredentialsException("unknown token");
+      }
+      return "contact";
+    }, 10, 60);
+
+    Authentication first = manager.authenticate(new PreAuthenticatedAuthenticationToken("abc123", "n/a"));
+    Authentication second = manager.authenticate(new PreAuthenticatedAuthenticationToken("abc123", "n/a"));
+
+    assertThat(first.isAuthenticated()).isTrue();
+    assertThat(first.getName()).isEqualTo("contact");
+    assertThat(second.getName()).isEqualTo("contact");
+    assertThat(verifications.get()).isEqualTo(1);
+
+    assertThatThrownBy(() -> manager.authenticate(new PreAuthenticatedAuthenticationToken("xyz789", "n/a")))
+      .isInstanceOf(BadCredentialsException.class);
+    assertThatThrownBy(() -> manager.authenticate(new PreAuthenticatedAuthenticationToken("", "n/a")))
+      .isInstanceOf(BadCredentialsException.class);
+  }
+
+}
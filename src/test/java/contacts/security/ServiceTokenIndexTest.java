@@ -0,0 +1,36 @@
+package contacts.security;
+
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("unit")
+class ServiceTokenIndexTest {
+
+  private static ServiceTokenIndex compileIndex() {
+    JsonObject authorizations = new JsonObject();
+    authorizations.addProperty("contact", "abc123");
+    authorizations.addProperty("directory", "xyz789");
+    return ServiceTokenIndex.compile(authorizations);
+  }
+
+  @Test
+  void testClientForKnownToken() {
+    ServiceTokenIndex index = compileIndex();
+
+    assertThat(index.size()).isEqualTo(2);
+    assertThat(index.clientFor("abc123")).contains("contact");
+    assertThat(index.clientFor("xyz789")).contains("directory");
+  }
+
+  @Test
+  void testClientForUnknownToken() {
+    ServiceTokenIndex index = compileIndex();
+
+    assertThat(index.clientFor("abc1234")).isEmpty();
+    assertThat(index.clientFor("")).isEmpty();
+  }
+
+}
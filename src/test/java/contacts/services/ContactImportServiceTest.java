@@ -0,0 +1,122 @@
+package contacts.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.Gson;
+import contacts.ContactFixture;
+import contacts.TestProfile;
+import contacts.models.BatchItemResult;
+import contacts.models.Contact;
+import contacts.models.ImportSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import javax.validation.Validator;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Tag("functional")
+@TestProfile
+public class ContactImportServiceTest {
+
+  @Autowired
+  private ContactImportService contactImportService;
+
+  @Autowired
+  private ContactService contactService;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private Validator validator;
+
+  @BeforeEach
+  private void clearTable() {
+    contactService.deleteAll();
+  }
+
+  @Test
+  void testImportContacts() throws Exception {
+    List<Contact> contacts = ContactFixture.getContactsListFixture();
+    String ndjson = contacts.stream().map(contact -> new Gson().toJson(contact)).collect(Collectors.joining("\n"));
+
+    ImportSummary summary = contactImportService.importContacts(toStream(ndjson));
+
+    assertThat(summary.accepted).isEqualTo(3);
+    assertThat(summary.rejected).isEqualTo(0);
+    assertThat(contactService.getAllContacts()).hasSize(3);
+  }
+
+  @Test
+  void testImportContactsRejectsInvalidLines() throws Exception {
+    Contact missingLastName = ContactFixture.getContactFixture();
+    missingLastName.getName().setLast(null);
+    String ndjson = String.join("\n",
+      new Gson().toJson(ContactFixture.getContactFixture()),
+      "{\"name\": ",
+      "",
+      new Gson().toJson(missingLastName));
+
+    ImportSummary summary = contactImportService.importContacts(toStream(ndjson));
+
+    assertThat(summary.accepted).isEqualTo(1);
+    assertThat(summary.rejected).isEqualTo(2);
+    assertThat(summary.rejections).extracting(rejection -> rejection.index).containsExactly(2, 4);
+    assertThat(summary.rejections.get(1).message).isEqualTo("name.last must not be null");
+  }
+
+  @Test
+  void testImportContactsRejectsOverlongLines() throws Exception {
+    ContactImportService smallLines = new ContactImportService(contactService, objectMapper, validator, 500, 1000);
+    String contact = new Gson().toJson(ContactFixture.getContactFixture());
+    char[] padding = new char[20000];
+    Arrays.fill(padding, ' ');
+    String ndjson = String.join("\r\n",
+      contact,
+      "{\"email\": \"" + new String(padding) + "\"}",
+      contact);
+
+    ImportSummary summary = smallLines.importContacts(toStream(ndjson));
+
+    assertThat(summary.accepted).isEqualTo(2);
+    assertThat(summary.rejections).extracting(rejection -> rejection.index).containsExactly(2);
+    assertThat(summary.rejections.get(0).status).isEqualTo(400);
+    assertThat(summary.rejections.get(0).message).isEqualTo("Line is longer than 1000 characters");
+  }
+
+  @Test
+  void testImportContactsReportsWriteFailuresAsServerErrors() throws Exception {
+    ContactService failingService = mock(ContactService.class);
+    given(failingService.createContacts(anyList())).willReturn(Collections.singletonList(
+      new BatchItemResult(0, null, HttpStatus.INTERNAL_SERVER_ERROR.value(), "database unavailable")));
+    ContactImportService importService = new ContactImportService(failingService, objectMapper, validator, 500, 65536);
+
+    ImportSummary summary = importService.importContacts(toStream(new Gson().toJson(ContactFixture.getContactFixture())));
+
+    assertThat(summary.rejected).isEqualTo(1);
+    assertThat(summary.rejections.get(0).index).isEqualTo(1);
+    assertThat(summary.rejections.get(0).status).isEqualTo(500);
+  }
+
+  private static ByteArrayInputStream toStream(String ndjson) {
+    return new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8));
+  }
+
+}
@@ -1,17 +1,46 @@
 package contacts.services;
 
+import com.google.common.util.concurrent.Uninterruptibles;
 import contacts.ContactFixture;
 import contacts.TestProfile;
+import contacts.exceptions.ContactAlreadyExistsException;
 import contacts.exceptions.ContactNotFoundException;
+import contacts.exceptions.ContactVersionConflictException;
+import contacts.exceptions.InvalidRequestException;
+import contacts.models.BatchItemResult;
 import contacts.models.Contact;
+import contacts.models.ContactChange;
+import contacts.models.ContactChanges;
+import contacts.models.ContactListVersion;
+import contacts.models.ContactSearchCriteria;
 import contacts.models.contactattributes.Name;
+import contacts.models.contactattributes.Phone;
+import contacts.repositories.ContactRepository;
+import contacts.repositories.ContactTombstoneRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -26,6 +55,18 @@ public class ContactServiceTest {
   @Autowired
   private ContactService contactService;
 
+  @Autowired
+  private ContactRepository contactRepo;
+
+  @Autowired
+  private ContactTombstoneRepository contactTombstoneRepo;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
   @BeforeAll
   private static void readTestJson() {
     expectedContacts = ContactFixture.getContactsListFixture();
@@ -46,6 +87,221 @@ public class ContactServiceTest {
     assertThat(foundContacts).isEqualTo(expectedContacts);
   }
 
+  @Test
+  void testGetContactsPage() {
+    List<Contact> allContacts = contactService.getAllContacts();
+
+    List<Contact> firstPage = contactService.getContactsPage(0, 2);
+    List<Contact> secondPage = contactService.getContactsPage(firstPage.get(1).getId(), 2);
+
+    assertThat(firstPage).isEqualTo(allContacts.subList(0, 2));
+    assertThat(secondPage).isEqualTo(allContacts.subList(2, 3));
+  }
+
+  @Test
+  void testStreamAllContacts() {
+    List<Contact> streamedContacts = new ArrayList<>();
+
+    contactService.streamAllContacts(streamedContacts::add);
+
+    assertThat(streamedContacts).isEqualTo(contactService.getAllContacts());
+  }
+
+  @Test
+  void testSearchContacts() {
+    ContactSearchCriteria inVirginia = new ContactSearchCriteria(null, null, null, "VIRGINIA", null, null, null);
+
+    Page<Contact> byLastNameDesc = contactService.searchContacts(inVirginia, 0, 10, "lastName", Sort.Direction.DESC);
+    Page<Contact> firstOfTwo = contactService.searchContacts(inVirginia, 0, 1, "lastName", Sort.Direction.ASC);
+    Page<Contact> byPrefix = contactService.searchContacts(
+      new ContactSearchCriteria(null, "tim", null, "virginia", null, null, null), 0, 10, "id", Sort.Direction.ASC);
+
+    assertThat(byLastNameDesc.getContent()).extracting(contact -> contact.getName().getLast())
+      .containsExactly("Timmerson", "Mitchell");
+    assertThat(firstOfTwo.getTotalElements()).isEqualTo(2);
+    assertThat(firstOfTwo.getContent()).extracting(contact -> contact.getName().getLast()).containsExactly("Mitchell");
+    assertThat(byPrefix.getContent()).extracting(Contact::getEmail).containsExactly("tim.tom@website.gov");
+  }
+
+  @Test
+  void testSearchContactsSeesUpdates() {
+    Contact contact = contactService.getAllContacts().get(0);
+    contact.setEmail("New.Address@Example.com");
+    contactService.updateContact(contact.getId(), contact);
+
+    Page<Contact> found = contactService.searchContacts(
+      new ContactSearchCriteria(null, null, null, null, null, "new.address@example.com", null), 0, 10, "id", Sort.Direction.ASC);
+
+    assertThat(found.getContent()).extracting(Contact::getId).containsExactly(contact.getId());
+
+    contact.setEmail("batch@example.com");
+    contactService.updateContacts(Collections.singletonList(contact));
+
+    Page<Contact> foundAfterBatch = contactService.searchContacts(
+      new ContactSearchCriteria(null, null, null, null, null, null, "batch@"), 0, 10, "id", Sort.Direction.ASC);
+
+    assertThat(foundAfterBatch.getContent()).extracting(Contact::getId).containsExactly(contact.getId());
+  }
+
+  @Test
+  void testSearchContactsRejectsUnknownSort() {
+    ContactSearchCriteria any = new ContactSearchCriteria(null, null, null, null, null, null, null);
+
+    Assertions.assertThrows(InvalidRequestException.class,
+      () -> contactService.searchContacts(any, 0, 10, "phone", Sort.Direction.ASC));
+  }
+
+  @Test
+  void testSuggestContacts() {
+    assertThat(contactService.suggestContacts("tim", 10)).extracting(suggestion -> suggestion.email)
+      .containsExactly("tim.tom@website.gov");
+    assertThat(contactService.suggestContacts("302-611", 10)).extracting(suggestion -> suggestion.name)
+      .containsExactly("Harold Gilkey");
+    assertThat(contactService.suggestContacts("M mitch", 10)).extracting(suggestion -> suggestion.name)
+      .containsExactly("Mike Mitchell");
+    assertThat(contactService.suggestContacts("virginia.edu", 10)).isEmpty();
+  }
+
+  @Test
+  void testSuggestContactsFollowsWrites() {
+    Contact contact = contactService.getAllContacts().get(0);
+    contact.setName(new Name("Zelda", null, "Zimmer"));
+    contactService.updateContact(contact.getId(), contact);
+
+    assertThat(contactService.suggestContacts("zim", 10)).extracting(suggestion -> suggestion.id)
+      .containsExactly(contact.getId());
+    assertThat(contactService.suggestContacts("gilkey", 10)).extracting(suggestion -> suggestion.name)
+      .containsExactly("Zelda Zimmer"); // still matched by email
+
+    contactService.deleteContacts(Collections.singletonList(contact.getId()));
+
+    assertThat(contactService.suggestContacts("zim", 10)).isEmpty();
+  }
+
+  @Test
+  void testRolledBackWritesAreNotSuggested() {
+    Contact newContact = ContactFixture.getContactFixture();
+    newContact.setId(null);
+    newContact.setName(new Name("Zelda", null, "Zimmer"));
+
+    inRolledBackTransaction(() -> contactService.createContact(newContact));
+    inRolledBackTransaction(() -> {
+      contactService.deleteContact(contactService.getAllContacts().get(0).getId());
+      return null;
+    });
+
+    assertThat(contactService.suggestContacts("zim", 10)).isEmpty();
+    assertThat(contactService.suggestContacts("gilkey", 10)).extracting(suggestion -> suggestion.name)
+      .containsExactly("Harold Gilkey");
+  }
+
+  @Test
+  void testGetContactsByPhone() {
+    assertThat(contactService.getContactsByPhone("(302) 532-9427")).extracting(Contact::getEmail)
+      .containsExactly("harold.gilkey@yahoo.com");
+    assertThat(contactService.getContactsByPhone("+13026119148")).extracting(Contact::getEmail)
+      .containsExactly("harold.gilkey@yahoo.com");
+
+    Assertions.assertThrows(ContactNotFoundException.class, () -> contactService.getContactsByPhone("555-000-0000"));
+    Assertions.assertThrows(InvalidRequestException.class, () -> contactService.getContactsByPhone("unknown"));
+  }
+
+  @Test
+  void testGetContactsByPhoneFollowsWrites() {
+    Contact contact = contactService.getAllContacts().get(0);
+    Phone phone = new Phone();
+    phone.setNumber("555.123.4567");
+    contact.setPhone(Collections.singletonList(phone));
+    contactService.updateContact(contact.getId(), contact);
+
+    assertThat(contactService.getContactsByPhone("5551234567")).extracting(Contact::getId)
+      .containsExactly(contact.getId());
+    Assertions.assertThrows(ContactNotFoundException.class, () -> contactService.getContactsByPhone("302-611-9148"));
+
+    contactService.deleteContact(contact.getId());
+
+    Assertions.assertThrows(ContactNotFoundException.class, () -> contactService.getContactsByPhone("5551234567"));
+  }
+
+  @Test
+  void testGetChanges() {
+    ContactChanges firstPage = contactService.getChanges(null, 2);
+    ContactChanges secondPage = contactService.getChanges(firstPage.watermark, 2);
+
+    assertThat(firstPage.changes).extracting(change -> change.type).containsOnly(ContactChange.Type.UPSERT);
+    assertThat(firstPage.more).isTrue();
+    assertThat(secondPage.changes).hasSize(1);
+    assertThat(secondPage.more).isFalse();
+    assertThat(contactService.getChanges(secondPage.watermark, 2).changes).isEmpty();
+    assertThat(contactService.getChanges(secondPage.watermark, 2).watermark).isEqualTo(secondPage.watermark);
+  }
+
+  @Test
+  void testGetChangesReportsUpdatesAndDeletes() {
+    String watermark = contactService.getChanges(null, 10).watermark;
+    List<Contact> contacts = contactService.getAllContacts();
+
+    Contact updated = contacts.get(0);
+    updated.setEmail("changed@example.com");
+    contactService.updateContact(updated.getId(), updated);
+    contactService.deleteContact(contacts.get(1).getId());
+    contactService.deleteContacts(Collections.singletonList(contacts.get(2).getId()));
+
+    ContactChanges changes = contactService.getChanges(watermark, 10);
+
+    assertThat(changes.changes).extracting(change -> change.type)
+      .containsExactly(ContactChange.Type.UPSERT, ContactChange.Type.DELETE, ContactChange.Type.DELETE);
+    assertThat(changes.changes).extracting(change -> change.id)
+      .containsExactly(updated.getId(), contacts.get(1).getId(), contacts.get(2).getId());
+    assertThat(changes.changes.get(0).contact.getEmail()).isEqualTo("changed@example.com");
+    assertThat(changes.changes.get(1).contact).isNull();
+  }
+
+  @Test
+  void testGetChangesDoesNotSkipLateCommits() throws Exception {
+    List<Contact> contacts = contactService.getAllContacts();
+    CountDownLatch slowWritten = new CountDownLatch(1);
+    CountDownLatch laterRead = new CountDownLatch(1);
+    ExecutorService slowWriter = Executors.newSingleThreadExecutor();
+
+    // the first update writes its time, then waits to commit until a later update has been read
+    Contact slowUpdate = contacts.get(0);
+    slowUpdate.setEmail("slow@example.com");
+    Future<?> slow = slowWriter.submit(() -> new TransactionTemplate(transactionManager).execute(status -> {
+      contactService.updateContact(slowUpdate.getId(), slowUpdate);
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+        @Override
+        public int getOrder() {
+          return HIGHEST_PRECEDENCE;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+          slowWritten.countDown();
+          Uninterruptibles.awaitUninterruptibly(laterRead, 10, TimeUnit.SECONDS);
+        }
+      });
+      return null;
+    }));
+    slowWritten.await(10, TimeUnit.SECONDS);
+    Contact fastUpdate = contacts.get(1);
+    fastUpdate.setEmail("fast@example.com");
+    contactService.updateContact(fastUpdate.getId(), fastUpdate);
+    String watermark = contactService.getChanges(null, 10).watermark;
+    laterRead.countDown();
+    slow.get(10, TimeUnit.SECONDS);
+    slowWriter.shutdown();
+
+    assertThat(contactService.getChanges(watermark, 10).changes).extracting(change -> change.id)
+      .containsExactly(slowUpdate.getId());
+  }
+
+  @Test
+  void testGetChangesRejectsBadWatermark() {
+    Assertions.assertThrows(InvalidRequestException.class, () -> contactService.getChanges("yesterday", 10));
+    Assertions.assertThrows(InvalidRequestException.class, () -> contactService.getChanges(System.currentTimeMillis() + "-1", 10));
+  }
+
   @Test
   void testCreateContact() {
     Contact newContact = ContactFixture.getContactFixture();
@@ -57,6 +313,13 @@ public class ContactServiceTest {
     assertThat(returnedContact).isEqualTo(newContact);
   }
 
+  @Test
+  void testCreateContactThrowsContactAlreadyExistsException() {
+    Contact contact = contactService.getAllContacts().get(0);
+
+    Assertions.assertThrows(ContactAlreadyExistsException.class, () -> contactService.createContact(contact));
+  }
+
   @Test
   void testUpdateContact() {
     Contact originalContact = contactService.getAllContacts().get(0);
@@ -72,6 +335,120 @@ public class ContactServiceTest {
     assertThat(result).isEqualTo(updatedContact);
   }
 
+  @Test
+  void testUpdateContactRejectsInvalidContact() {
+    Contact contact = contactService.getAllContacts().get(0);
+    Contact invalidContact = new Contact();
+    invalidContact.setEmail(contact.getEmail());
+
+    InvalidRequestException ex = Assertions.assertThrows(InvalidRequestException.class,
+      () -> contactService.updateContact(contact.getId(), invalidContact));
+
+    assertThat(ex.getMessage()).isEqualTo("address must not be null, name must not be null, phone must not be null");
+    assertThat(contactRepo.findById(contact.getId()).get()).isEqualTo(contact);
+  }
+
+  @Test
+  void testOverlongPhoneNumberIsRejected() {
+    Contact contact = contactService.getAllContacts().get(0);
+    Contact overlong = ContactFixture.getContactFixture();
+    overlong.setId(null);
+    // 33 characters once normalized, longer than the phone number index holds
+    overlong.getPhone().get(0).setNumber("+" + String.join("", Collections.nCopies(32, "1")));
+
+    InvalidRequestException createEx = Assertions.assertThrows(InvalidRequestException.class,
+      () -> contactService.createContact(overlong));
+    InvalidRequestException updateEx = Assertions.assertThrows(InvalidRequestException.class,
+      () -> contactService.updateContact(contact.getId(), overlong));
+    List<BatchItemResult> results = contactService.createContacts(Collections.singletonList(overlong));
+
+    assertThat(createEx.getMessage()).isEqualTo("phone[0].number must be at most 32 characters once normalized");
+    assertThat(updateEx.getMessage()).isEqualTo(createEx.getMessage());
+    assertThat(results.get(0).status).isEqualTo(400);
+  }
+
+  @Test
+  void testUpdateContactChecksVersion() {
+    Contact contact = contactService.getAllContacts().get(0);
+    long version = contact.getVersion();
+
+    Contact updated = contactService.updateContact(contact.getId(), contact, version);
+
+    assertThat(updated.getVersion()).isEqualTo(version + 1);
+    assertThat(contactService.getContact(contact.getId()).getVersion()).isEqualTo(version + 1);
+    Assertions.assertThrows(ContactVersionConflictException.class,
+      () -> contactService.updateContact(contact.getId(), contact, version));
+    Assertions.assertThrows(ContactNotFoundException.class,
+      () -> contactService.updateContact(Long.MAX_VALUE, contact, version));
+  }
+
+  @Test
+  void testContactListVersionChangesOnWrites() {
+    ContactListVersion original = contactService.getContactListVersion();
+    Contact contact = contactService.getAllContacts().get(0);
+
+    contactService.deleteContact(contact.getId());
+    ContactListVersion afterDelete = contactService.getContactListVersion();
+
+    assertThat(afterDelete.version).isEqualTo(original.version + 1);
+    assertThat(afterDelete.etag()).isNotEqualTo(original.etag());
+    assertThat(contactService.getContactListVersion().etag()).isEqualTo(afterDelete.etag());
+  }
+
+  @Test
+  void testContactListVersionIgnoresWriteTimes() {
+    Contact contact = contactService.getAllContacts().get(0);
+    ContactListVersion original = contactService.getContactListVersion();
+
+    // two writes in the same millisecond, or on clocks that disagree, still change the list version
+    contactService.updateContact(contact.getId(), contact);
+    ContactListVersion afterUpdate = contactService.getContactListVersion();
+    contactService.deleteContact(contactService.getAllContacts().get(1).getId());
+    Contact replacement = ContactFixture.getContactFixture();
+    replacement.setId(null);
+    contactService.createContact(replacement);
+    ContactListVersion afterReplace = contactService.getContactListVersion();
+
+    assertThat(afterUpdate.etag()).isNotEqualTo(original.etag());
+    assertThat(afterReplace.etag()).isNotIn(original.etag(), afterUpdate.etag());
+  }
+
+  @Test
+  void testContactListVersionCountsCommittedTransactions() {
+    ContactListVersion original = contactService.getContactListVersion();
+    List<Contact> newContacts = ContactFixture.getContactsListFixture();
+    newContacts.forEach(contact -> contact.setId(null));
+
+    contactService.createContacts(newContacts);
+    ContactListVersion afterBatch = contactService.getContactListVersion();
+    inRolledBackTransaction(() -> {
+      contactService.deleteContact(newContacts.get(0).getId());
+      return null;
+    });
+
+    assertThat(afterBatch.version).isEqualTo(original.version + 1);
+    assertThat(contactService.getContactListVersion().etag()).isEqualTo(afterBatch.etag());
+  }
+
+  @Test
+  void testContactListLastModifiedIncludesDeletes() {
+    Contact contact = contactService.getAllContacts().get(0);
+    ContactListVersion original = contactService.getContactListVersion();
+
+    contactService.deleteContact(contact.getId());
+    ContactListVersion afterDelete = contactService.getContactListVersion();
+
+    assertThat(afterDelete.lastModified).isNotNull();
+    assertThat(afterDelete.lastModified).isAfterOrEqualTo(original.lastModified);
+  }
+
+  @Test
+  void testUpdateContactThrowsContactNotFoundException() {
+    Contact contact = ContactFixture.getContactFixture();
+
+    Assertions.assertThrows(ContactNotFoundException.class, () -> contactService.updateContact(Long.MAX_VALUE, contact));
+  }
+
   @Test
   void testGetContact() {
     Contact contact = contactService.getAllContacts().get(0);
@@ -80,6 +457,90 @@ public class ContactServiceTest {
     assertThat(returnedContact).isEqualTo(contact);
   }
 
+  @Test
+  void testServiceAndRepositoryCallsAreTimed() {
+    Contact contact = contactService.getAllContacts().get(0);
+    contactService.getContact(contact.getId());
+
+    Timer serviceTimer = meterRegistry.find("contacts.service")
+      .tags("class", "ContactService", "method", "getContact", "exception", "None", "client", "none")
+      .timer();
+    Timer repositoryTimer = meterRegistry.find("contacts.repository")
+      .tags("class", "ContactRepository", "method", "findAll")
+      .timer();
+
+    assertThat(serviceTimer).isNotNull();
+    assertThat(serviceTimer.count()).isGreaterThanOrEqualTo(1);
+    assertThat(repositoryTimer).isNotNull();
+    assertThat(repositoryTimer.count()).isGreaterThanOrEqualTo(1);
+  }
+
+  @Test
+  void testGetContactIsCached() {
+    Contact contact = contactService.getAllContacts().get(0);
+    contactService.getContact(contact.getId());
+
+    contactRepo.deleteById(contact.getId()); //bypass the service so the cache is not invalidated
+
+    assertThat(contactService.getContact(contact.getId())).isEqualTo(contact);
+  }
+
+  @Test
+  void testRolledBackWritesAreNotCached() {
+    Contact contact = contactService.getAllContacts().get(0);
+    contactService.getContact(contact.getId());
+    Contact newContact = ContactFixture.getContactFixture();
+    newContact.setId(null);
+
+    Contact rolledBackCreate = inRolledBackTransaction(() -> contactService.createContact(newContact));
+    Contact rolledBackUpdate = inRolledBackTransaction(() -> {
+      Contact update = contactService.getAllContacts().get(0);
+      update.setEmail("rolled.back@example.com");
+      return contactService.updateContact(update.getId(), update);
+    });
+
+    Assertions.assertThrows(ContactNotFoundException.class, () -> contactService.getContact(rolledBackCreate.getId()));
+    assertThat(rolledBackUpdate.getEmail()).isEqualTo("rolled.back@example.com");
+    assertThat(contactService.getContact(contact.getId())).isEqualTo(contact);
+  }
+
+  @Test
+  void testUpdatesCommittedOutOfOrderCacheTheLatest() throws Exception {
+    long id = contactService.getAllContacts().get(0).getId();
+    CountDownLatch secondCached = new CountDownLatch(1);
+    ExecutorService firstWriter = Executors.newSingleThreadExecutor();
+
+    // the first update commits, then its cache callback waits until the second one's has run
+    Contact firstUpdate = contactRepo.findById(id).orElseThrow(ContactNotFoundException::new);
+    firstUpdate.setEmail("first@example.com");
+    Future<?> first = firstWriter.submit(() -> new TransactionTemplate(transactionManager).execute(status -> {
+      contactService.updateContact(id, firstUpdate);
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+        @Override
+        public int getOrder() {
+          return HIGHEST_PRECEDENCE;
+        }
+
+        @Override
+        public void afterCommit() {
+          Uninterruptibles.awaitUninterruptibly(secondCached, 10, TimeUnit.SECONDS);
+        }
+      });
+      return null;
+    }));
+    while(!first.isDone() && !contactRepo.findById(id).orElseThrow(ContactNotFoundException::new).getEmail().equals("first@example.com")) {
+      Thread.sleep(10);
+    }
+    Contact secondUpdate = contactRepo.findById(id).orElseThrow(ContactNotFoundException::new);
+    secondUpdate.setEmail("second@example.com");
+    contactService.updateContact(id, secondUpdate);
+    secondCached.countDown();
+    first.get(10, TimeUnit.SECONDS);
+    firstWriter.shutdown();
+
+    assertThat(contactService.getContact(id).getEmail()).isEqualTo("second@example.com");
+  }
+
   @Test
   void testDeleteContact() {
     Contact contact = contactService.getAllContacts().get(0);
@@ -89,6 +550,59 @@ public class ContactServiceTest {
     Assertions.assertThrows(ContactNotFoundException.class, () -> contactService.getContact(contact.getId()));
   }
 
+  @Test
+  void testDeleteContactThrowsContactNotFoundException() {
+    Assertions.assertThrows(ContactNotFoundException.class, () -> contactService.deleteContact(Long.MAX_VALUE));
+  }
+
+  @Test
+  void testCreateContacts() {
+    Contact existingContact = contactService.getAllContacts().get(0);
+    List<Contact> newContacts = ContactFixture.getContactsListFixture();
+    newContacts.forEach(contact -> contact.setId(null));
+    newContacts.add(existingContact);
+
+    List<BatchItemResult> results = contactService.createContacts(newContacts);
+
+    assertThat(results).extracting(result -> result.status).containsExactly(200, 200, 200, 400);
+    assertThat(contactService.getAllContacts()).hasSize(6);
+  }
+
+  @Test
+  void testCreateContactsIsolatesInvalidContacts() {
+    List<Contact> newContacts = ContactFixture.getContactsListFixture();
+    newContacts.forEach(contact -> contact.setId(null));
+    newContacts.get(1).setName(null);
+
+    List<BatchItemResult> results = contactService.createContacts(newContacts);
+
+    assertThat(results).extracting(result -> result.status).containsExactly(200, 400, 200);
+    assertThat(contactService.getAllContacts()).hasSize(5);
+  }
+
+  @Test
+  void testUpdateContacts() {
+    Contact contact = contactService.getAllContacts().get(0);
+    contact.setEmail("batchUpdatedEmail@email.gov");
+    Contact missingContact = ContactFixture.getContactFixture();
+    missingContact.setId(Long.MAX_VALUE);
+
+    List<BatchItemResult> results = contactService.updateContacts(Arrays.asList(contact, missingContact));
+
+    assertThat(results).extracting(result -> result.status).containsExactly(200, 404);
+    assertThat(contactService.getContact(contact.getId()).getEmail()).isEqualTo("batchUpdatedEmail@email.gov");
+  }
+
+  @Test
+  void testDeleteContacts() {
+    Contact contact = contactService.getAllContacts().get(0);
+
+    List<BatchItemResult> results = contactService.deleteContacts(Arrays.asList(contact.getId(), Long.MAX_VALUE));
+
+    assertThat(results).extracting(result -> result.status).containsExactly(200, 404);
+    Assertions.assertThrows(ContactNotFoundException.class, () -> contactService.getContact(contact.getId()));
+  }
+
   private void setContactIds(List<Contact> contactsWithoutIds, List<Contact> contactsWithIds) {
     for(int i=0; i < contactsWithIds.size(); i++) {
       contactsWithoutIds.get(i).setId(
@@ -97,4 +611,12 @@ public class ContactServiceTest {
     }
   }
 
+  private <T> T inRolledBackTransaction(Supplier<T> write) {
+    return new TransactionTemplate(transactionManager).execute(status -> {
+      T result = write.get();
+      status.setRollbackOnly();
+      return result;
+    });
+  }
+
 }
@@ -0,0 +1,48 @@
+package contacts.services;
+
+import contacts.ContactFixture;
+import contacts.models.Contact;
+import contacts.repositories.ContactRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+@Tag("unit")
+class ContactSuggestIndexTest {
+
+  @Test
+  void testRebuildServesSuggestionsAndKeepsWritesWhileReading() throws Exception {
+    // given
+    List<Contact> contacts = ContactFixture.getContactsListFixture();
+    ContactRepository contactRepo = mock(ContactRepository.class);
+    ContactSuggestIndex index = new ContactSuggestIndex(contactRepo, mock(PlatformTransactionManager.class));
+    index.add(contacts.get(0));
+    ExecutorService otherThread = Executors.newSingleThreadExecutor();
+    given(contactRepo.streamAllByOrderByIdAsc()).willAnswer(invocation -> {
+      // the old index answers while the rebuild reads, and a write lands in both
+      assertThat(otherThread.submit(() -> index.suggest("gilkey", 10)).get(5, TimeUnit.SECONDS)).hasSize(1);
+      otherThread.submit(() -> index.add(contacts.get(2))).get(5, TimeUnit.SECONDS);
+      return Stream.of(contacts.get(0), contacts.get(1));
+    });
+
+    // when
+    index.rebuild();
+    otherThread.shutdown();
+
+    // then
+    assertThat(index.size()).isEqualTo(3);
+    assertThat(index.suggest("mitchell", 10)).hasSize(1);
+    assertThat(index.suggest("timmerson", 10)).hasSize(1);
+  }
+
+}
@@ -0,0 +1,88 @@
+package contacts.singletons;
+
+import com.google.common.base.Ticker;
+import contacts.exceptions.ContactsRuntimeException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Tag("unit")
+class SecretsManagerTest {
+
+  private static SecretSource fileSecretSource() throws URISyntaxException {
+    return new FileSecretSource(Paths.get(SecretsManagerTest.class.getResource("/secrets").toURI()));
+  }
+
+  @Test
+  void testVerifyServiceTokenFromFileSource() throws URISyntaxException {
+    SecretsManager secretsManager = new SecretsManager(fileSecretSource(), new SimpleMeterRegistry(), Ticker.systemTicker());
+
+    assertThat(secretsManager.verifyServiceToken("abc123")).isEqualTo("contact");
+    assertThatThrownBy(() -> secretsManager.verifyServiceToken("abc1234"))
+      .isInstanceOf(BadCredentialsException.class);
+  }
+
+  @Test
+  void testPrefetchServiceTokens() throws URISyntaxException {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    SecretsManager secretsManager = new SecretsManager(fileSecretSource(), registry);
+
+    assertThat(secretsManager.prefetchServiceTokens()).isEqualTo(1);
+    assertThat(secretsManager.verifyServiceToken("abc123")).isEqualTo("contact");
+    assertThat(registry.get("cache.load").tag("cache", "secrets").tag("result", "success").functionCounter().count())
+      .isEqualTo(1);
+  }
+
+  @Test
+  void testColdLoadFailure() {
+    SecretSource failing = secretName -> {
+      throw new IllegalStateException("unavailable");
+    };
+    SecretsManager secretsManager = new SecretsManager(failing, new SimpleMeterRegistry(), Ticker.systemTicker());
+
+    assertThatThrownBy(() -> secretsManager.verifyServiceToken("abc123"))
+      .isInstanceOf(ContactsRuntimeException.class)
+      .hasCauseInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void testServesCachedValueWhenRefreshFails() throws URISyntaxException {
+    SecretSource files = fileSecretSource();
+    AtomicBoolean sourceDown = new AtomicBoolean(false);
+    SecretSource flaky = secretName -> {
+      if(sourceDown.get()) {
+        throw new IllegalStateException("unavailable");
+      }
+      return files.getSecretString(secretName);
+    };
+    AtomicLong nanos = new AtomicLong();
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    SecretsManager secretsManager = new SecretsManager(flaky, registry, new Ticker() {
+      @Override
+      public long read() {
+        return nanos.get();
+      }
+    });
+
+    assertThat(secretsManager.verifyServiceToken("abc123")).isEqualTo("contact");
+
+    sourceDown.set(true);
+    nanos.addAndGet(TimeUnit.MINUTES.toNanos(11));
+
+    assertThat(secretsManager.verifyServiceToken("abc123")).isEqualTo("contact");
+    assertThat(secretsManager.verifyServiceToken("abc123")).isEqualTo("contact");
+    assertThat(registry.get("cache.load").tag("cache", "secrets").tag("result", "success").functionCounter().count())
+      .isEqualTo(1);
+  }
+
+}